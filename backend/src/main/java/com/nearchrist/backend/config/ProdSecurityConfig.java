@@ -4,6 +4,7 @@ import com.nearchrist.backend.security.JwtAuthenticationFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -17,6 +18,15 @@ import static org.springframework.security.config.Customizer.withDefaults;
 public class ProdSecurityConfig {
 
     @Bean
+    @Order(1)
+    public SecurityFilterChain publicReadFilterChain(HttpSecurity http) throws Exception {
+        return CommonSecurityConfig.publicReads(http)
+                .requiresChannel(channel -> channel.anyRequest().requiresSecure())
+                .build();
+    }
+
+    @Bean
+    @Order(2)
     public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthenticationFilter) throws Exception {
         http
                 .requiresChannel(channel -> channel.anyRequest().requiresSecure()) // Enforce HTTPS for production
@@ -26,7 +36,7 @@ public class ProdSecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         .requestMatchers("/auth/login").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/states/**", "/dioceses/**", "/parishes/**", "/adorations/**", "/crusades/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, CommonSecurityConfig.PUBLIC_READ_PATHS).permitAll()
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
@@ -1,13 +1,26 @@
 package com.nearchrist.backend.controller;
 
 import com.nearchrist.backend.dto.AdorationDto;
+import com.nearchrist.backend.dto.AdorationNowDto;
+import com.nearchrist.backend.dto.AdorationOccurrenceDto;
 import com.nearchrist.backend.dto.AdorationUpsertDto;
 import com.nearchrist.backend.dto.ApiResponse;
+import com.nearchrist.backend.dto.BatchRequestDto;
+import com.nearchrist.backend.dto.BatchResultDto;
+import com.nearchrist.backend.dto.CoverageDto;
+import com.nearchrist.backend.dto.KeysetCursor;
+import com.nearchrist.backend.dto.KeysetPage;
 import com.nearchrist.backend.service.AdorationService;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 
 @RestController
@@ -23,30 +36,92 @@ public class AdorationController {
     public ResponseEntity<ApiResponse<List<AdorationDto>>> getAll(
             @RequestParam(required = false) Long state_id,
             @RequestParam(required = false) Long diocese_id,
-            @RequestParam(required = false) Long parish_id) {
+            @RequestParam(required = false) Long parish_id,
+            @RequestParam(defaultValue = KeysetCursor.SORT_ID) String sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
         try {
-            List<AdorationDto> adorations = service.getAllAdorations();
-            if (state_id != null) {
-                adorations = adorations.stream().filter(a -> state_id.equals(a.stateId())).toList();
-            }
-            if (diocese_id != null) {
-                adorations = adorations.stream().filter(a -> diocese_id.equals(a.dioceseId())).toList();
-            }
-            if (parish_id != null) {
-                adorations = adorations.stream().filter(a -> parish_id.equals(a.parishId())).toList();
-            }
-            return ResponseEntity.ok(new ApiResponse<>(true, 200, "All adorations fetched", adorations));
+            // Read before the body, so the tag is never newer than the data it describes
+            String etag = service.currentETag();
+            KeysetPage<AdorationDto> page = service.getAdorations(state_id, diocese_id, parish_id, sort, after, limit);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag)
+                    .body(new ApiResponse<>(true, 200, "All adorations fetched", page.items(), page.nextCursor()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>(false, 400, e.getMessage(), null));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ApiResponse<>(false, 500, "Error fetching adorations: " + e.getMessage(), null));
         }
     }
 
+    @GetMapping("/now")
+    public ResponseEntity<ApiResponse<AdorationNowDto>> getHappeningNow(
+            @RequestParam(required = false) Long state_id,
+            @RequestParam(required = false) Long diocese_id,
+            @RequestParam(required = false) Long parish_id,
+            @RequestParam(defaultValue = "60") int within) {
+        try {
+            AdorationNowDto now = service.getHappeningNow(state_id, diocese_id, parish_id, within);
+            // Unchanged until the next start or end, but keep client copies short so edits show up soon
+            long maxAge = Math.min(60, Math.max(0, Duration.between(Instant.now(), now.validUntil()).toSeconds()));
+            return ResponseEntity.ok().cacheControl(CacheControl.maxAge(Duration.ofSeconds(maxAge)))
+                    .body(new ApiResponse<>(true, 200, "Adorations happening now fetched", now));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>(false, 400, e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse<>(false, 500, "Error fetching adorations happening now: " + e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/upcoming")
+    public ResponseEntity<ApiResponse<List<AdorationOccurrenceDto>>> getUpcoming(
+            @RequestParam(required = false) Long state_id,
+            @RequestParam(required = false) Long diocese_id,
+            @RequestParam(required = false) Long parish_id,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            List<AdorationOccurrenceDto> upcoming = service.getUpcoming(state_id, diocese_id, parish_id, limit);
+            // The first session moves on as time passes, so only allow short client copies
+            return ResponseEntity.ok().cacheControl(CacheControl.maxAge(Duration.ofSeconds(60)))
+                    .body(new ApiResponse<>(true, 200, "Upcoming adorations fetched", upcoming));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>(false, 400, e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse<>(false, 500, "Error fetching upcoming adorations: " + e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/coverage")
+    public ResponseEntity<ApiResponse<CoverageDto>> getCoverage(
+            @RequestParam(required = false) Long state_id,
+            @RequestParam(required = false) Long diocese_id,
+            @RequestParam(required = false) Long parish_id) {
+        try {
+            String etag = service.currentETag();
+            CoverageDto coverage = service.getCoverage(state_id, diocese_id, parish_id);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag)
+                    .body(new ApiResponse<>(true, 200, "Adoration coverage fetched", coverage));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>(false, 400, e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse<>(false, 500, "Error fetching adoration coverage: " + e.getMessage(), null));
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<AdorationDto>> getById(@PathVariable Long id) {
         try {
+            String etag = service.currentETag();
             return service.getAdorationById(id)
-                    .map(a -> ResponseEntity.ok(new ApiResponse<>(true, 200, "Adoration fetched successfully", a)))
+                    .map(a -> ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag)
+                            .body(new ApiResponse<>(true, 200, "Adoration fetched successfully", a)))
                     .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
                             .body(new ApiResponse<>(false, 404, "Adoration not found", null)));
         } catch (Exception e) {
@@ -71,12 +146,19 @@ public class AdorationController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<ApiResponse<AdorationDto>> update(@PathVariable Long id, @RequestBody AdorationUpsertDto dto) {
+    public ResponseEntity<ApiResponse<AdorationDto>> update(@PathVariable Long id, @RequestBody AdorationUpsertDto dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            return service.updateAdoration(id, dto)
+            Long expectedVersion = ifMatch != null ? RecordVersions.fromIfMatch(ifMatch) : dto.adorationVersion();
+            return service.updateAdoration(id, dto, expectedVersion)
                     .map(a -> ResponseEntity.ok(new ApiResponse<>(true, 200, "Adoration updated successfully", a)))
                     .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
                             .body(new ApiResponse<>(false, 404, "Adoration not found", null)));
+        } catch (OptimisticLockingFailureException e) {
+            // A stale If-Match fails its precondition; a stale version in the body is a conflict
+            HttpStatus status = ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT;
+            return ResponseEntity.status(status)
+                    .body(new ApiResponse<>(false, status.value(), e.getMessage(), null));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                     .body(new ApiResponse<>(false, 400, e.getMessage(), null));
@@ -102,4 +184,26 @@ public class AdorationController {
                     .body(new ApiResponse<>(false, 500, "Error deleting adoration: " + e.getMessage(), null));
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<BatchResultDto<AdorationDto>>> batch(@RequestBody BatchRequestDto<AdorationUpsertDto> batch) {
+        try {
+            BatchResultDto<AdorationDto> result = service.applyBatch(batch);
+            if (!result.applied()) {
+                int status = result.rejectionStatus();
+                return ResponseEntity.status(status)
+                        .body(new ApiResponse<>(false, status, result.items().size() + " items were rejected; nothing was applied", result));
+            }
+            return ResponseEntity.ok(new ApiResponse<>(true, 200, "Batch applied", result));
+        } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(false, 409, e.getMessage(), null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>(false, 400, e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse<>(false, 500, "Error applying adoration batch: " + e.getMessage(), null));
+        }
+    }
+}
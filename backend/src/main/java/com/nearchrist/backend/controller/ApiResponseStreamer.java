@@ -0,0 +1,70 @@
+package com.nearchrist.backend.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nearchrist.backend.dto.ApiResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes a successful {@link com.nearchrist.backend.dto.ApiResponse} list envelope item by item, so
+ * a response costs Jackson's buffer rather than the whole list plus the whole body.
+ */
+@Component
+public class ApiResponseStreamer {
+    private final ObjectMapper objectMapper;
+
+    public ApiResponseStreamer(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param items called once with a sink; every item passed to the sink is written immediately.
+     *              It runs on the async request thread, so it must open its own transaction.
+     */
+    public <T> ResponseEntity<StreamingResponseBody> list(String message, Consumer<Consumer<T>> items) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                // Same fields as ApiResponse; nextCursor is omitted because the whole list follows
+                json.writeStartObject();
+                json.writeBooleanField("success", true);
+                json.writeNumberField("status", 200);
+                json.writeStringField("message", message);
+                json.writeArrayFieldStart("data");
+                items.accept(item -> {
+                    try {
+                        json.writeObject(item);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Any other envelope (an error, a single page) from a handler declared to return
+     * {@code ResponseEntity<StreamingResponseBody>}. Spring picks the streaming return value handler
+     * from the declared type, so every branch of such a handler has to return a streaming body.
+     */
+    public ResponseEntity<StreamingResponseBody> single(HttpStatus status, ApiResponse<?> response) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                json.writeObject(response);
+            }
+        };
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
@@ -0,0 +1,67 @@
+package com.nearchrist.backend.controller;
+
+import com.nearchrist.backend.dto.ApiResponse;
+import com.nearchrist.backend.service.CalendarService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Calendar subscriptions to the adorations of a parish, diocese or state.
+ */
+@RestController
+public class CalendarController {
+    private static final MediaType TEXT_CALENDAR = new MediaType("text", "calendar", StandardCharsets.UTF_8);
+
+    private final CalendarService service;
+    private final ApiResponseStreamer streamer;
+
+    public CalendarController(CalendarService service, ApiResponseStreamer streamer) {
+        this.service = service;
+        this.streamer = streamer;
+    }
+
+    @GetMapping("/parishes/{id}/calendar.ics")
+    public ResponseEntity<StreamingResponseBody> getParishCalendar(@PathVariable Long id, WebRequest request) {
+        return calendar(() -> service.parishFeed(id), "Parish", request);
+    }
+
+    @GetMapping("/dioceses/{id}/calendar.ics")
+    public ResponseEntity<StreamingResponseBody> getDioceseCalendar(@PathVariable Long id, WebRequest request) {
+        return calendar(() -> service.dioceseFeed(id), "Diocese", request);
+    }
+
+    @GetMapping("/states/{id}/calendar.ics")
+    public ResponseEntity<StreamingResponseBody> getStateCalendar(@PathVariable Long id, WebRequest request) {
+        return calendar(() -> service.stateFeed(id), "State", request);
+    }
+
+    private ResponseEntity<StreamingResponseBody> calendar(Supplier<Optional<CalendarService.CalendarFeed>> lookup, String scope, WebRequest request) {
+        try {
+            Optional<CalendarService.CalendarFeed> feed = lookup.get();
+            if (feed.isEmpty()) {
+                return streamer.single(HttpStatus.NOT_FOUND, new ApiResponse<>(false, 404, scope + " not found", null));
+            }
+            CalendarService.CalendarFeed calendar = feed.get();
+            // Sets ETag and Last-Modified, and the 304 status when the client's copy is current
+            if (request.checkNotModified(calendar.etag(), calendar.lastModified().toEpochMilli())) {
+                return null;
+            }
+            StreamingResponseBody body = calendar.body()::writeTo;
+            return ResponseEntity.ok().contentType(TEXT_CALENDAR).cacheControl(CacheControl.noCache()).body(body);
+        } catch (Exception e) {
+            return streamer.single(HttpStatus.INTERNAL_SERVER_ERROR,
+                    new ApiResponse<>(false, 500, "Error fetching calendar: " + e.getMessage(), null));
+        }
+    }
+}
@@ -3,7 +3,15 @@ package com.nearchrist.backend.controller;
 import com.nearchrist.backend.dto.CrusadeDto;
 import com.nearchrist.backend.dto.CrusadeUpsertDto;
 import com.nearchrist.backend.dto.ApiResponse;
+import com.nearchrist.backend.dto.BatchRequestDto;
+import com.nearchrist.backend.dto.BatchResultDto;
+import com.nearchrist.backend.dto.KeysetCursor;
+import com.nearchrist.backend.dto.KeysetPage;
 import com.nearchrist.backend.service.CrusadeService;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -23,19 +31,19 @@ public class CrusadeController {
     public ResponseEntity<ApiResponse<List<CrusadeDto>>> getAll(
             @RequestParam(required = false) Long state_id,
             @RequestParam(required = false) Long diocese_id,
-            @RequestParam(required = false) Long parish_id) {
+            @RequestParam(required = false) Long parish_id,
+            @RequestParam(defaultValue = KeysetCursor.SORT_ID) String sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
         try {
-            List<CrusadeDto> crusades = service.getAllCrusades();
-            if (state_id != null) {
-                crusades = crusades.stream().filter(c -> state_id.equals(c.stateId())).toList();
-            }
-            if (diocese_id != null) {
-                crusades = crusades.stream().filter(c -> diocese_id.equals(c.dioceseId())).toList();
-            }
-            if (parish_id != null) {
-                crusades = crusades.stream().filter(c -> parish_id.equals(c.parishId())).toList();
-            }
-            return ResponseEntity.ok(new ApiResponse<>(true, 200, "All crusades fetched", crusades));
+            // Read before the body, so the tag is never newer than the data it describes
+            String etag = service.currentETag();
+            KeysetPage<CrusadeDto> page = service.getCrusades(state_id, diocese_id, parish_id, sort, after, limit);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag)
+                    .body(new ApiResponse<>(true, 200, "All crusades fetched", page.items(), page.nextCursor()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>(false, 400, e.getMessage(), null));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ApiResponse<>(false, 500, "Error fetching crusades: " + e.getMessage(), null));
@@ -45,8 +53,10 @@ public class CrusadeController {
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<CrusadeDto>> getById(@PathVariable Long id) {
         try {
+            String etag = service.currentETag();
             return service.getCrusadeById(id)
-                    .map(c -> ResponseEntity.ok(new ApiResponse<>(true, 200, "Crusade fetched successfully", c)))
+                    .map(c -> ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag)
+                            .body(new ApiResponse<>(true, 200, "Crusade fetched successfully", c)))
                     .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
                             .body(new ApiResponse<>(false, 404, "Crusade not found", null)));
         } catch (Exception e) {
@@ -71,12 +81,19 @@ public class CrusadeController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<ApiResponse<CrusadeDto>> update(@PathVariable Long id, @RequestBody CrusadeUpsertDto dto) {
+    public ResponseEntity<ApiResponse<CrusadeDto>> update(@PathVariable Long id, @RequestBody CrusadeUpsertDto dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            return service.updateCrusade(id, dto)
+            Long expectedVersion = ifMatch != null ? RecordVersions.fromIfMatch(ifMatch) : dto.crusadeVersion();
+            return service.updateCrusade(id, dto, expectedVersion)
                     .map(c -> ResponseEntity.ok(new ApiResponse<>(true, 200, "Crusade updated successfully", c)))
                     .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
                             .body(new ApiResponse<>(false, 404, "Crusade not found", null)));
+        } catch (OptimisticLockingFailureException e) {
+            // A stale If-Match fails its precondition; a stale version in the body is a conflict
+            HttpStatus status = ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT;
+            return ResponseEntity.status(status)
+                    .body(new ApiResponse<>(false, status.value(), e.getMessage(), null));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                     .body(new ApiResponse<>(false, 400, e.getMessage(), null));
@@ -102,4 +119,26 @@ public class CrusadeController {
                     .body(new ApiResponse<>(false, 500, "Error deleting crusade: " + e.getMessage(), null));
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<BatchResultDto<CrusadeDto>>> batch(@RequestBody BatchRequestDto<CrusadeUpsertDto> batch) {
+        try {
+            BatchResultDto<CrusadeDto> result = service.applyBatch(batch);
+            if (!result.applied()) {
+                int status = result.rejectionStatus();
+                return ResponseEntity.status(status)
+                        .body(new ApiResponse<>(false, status, result.items().size() + " items were rejected; nothing was applied", result));
+            }
+            return ResponseEntity.ok(new ApiResponse<>(true, 200, "Batch applied", result));
+        } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(false, 409, e.getMessage(), null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>(false, 400, e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse<>(false, 500, "Error applying crusade batch: " + e.getMessage(), null));
+        }
+    }
+}
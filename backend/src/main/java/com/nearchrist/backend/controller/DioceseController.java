@@ -1,10 +1,13 @@
 package com.nearchrist.backend.controller;
 
 import com.nearchrist.backend.dto.ApiResponse;
+import com.nearchrist.backend.dto.KeysetCursor;
+import com.nearchrist.backend.dto.KeysetPage;
 import com.nearchrist.backend.dto.DioceseDto;
 import com.nearchrist.backend.dto.DioceseUpsertDto;
 import com.nearchrist.backend.exception.DioceseHasParishesException;
 import com.nearchrist.backend.service.DioceseService;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -22,10 +25,19 @@ public class DioceseController {
     }
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<DioceseDto>>> getAll() {
+    public ResponseEntity<ApiResponse<List<DioceseDto>>> getAll(
+            @RequestParam(defaultValue = KeysetCursor.SORT_ID) String sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
         try {
-            List<DioceseDto> dioceses = dioceseService.getAllDioceses();
-            return ResponseEntity.ok(new ApiResponse<>(true, 200, "All dioceses fetched", dioceses));
+            // Read before the body, so the tag is never newer than the data it describes
+            String etag = dioceseService.currentETag();
+            KeysetPage<DioceseDto> page = dioceseService.getDiocesePage(sort, after, limit);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag)
+                    .body(new ApiResponse<>(true, 200, "All dioceses fetched", page.items(), page.nextCursor()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>(false, 400, e.getMessage(), null));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ApiResponse<>(false, 500, "Error fetching dioceses: " + e.getMessage(), null));
@@ -35,8 +47,10 @@ public class DioceseController {
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<DioceseDto>> getById(@PathVariable Long id) {
         try {
+            String etag = dioceseService.currentETag();
             return dioceseService.getDioceseById(id)
-                    .map(d -> ResponseEntity.ok(new ApiResponse<>(true, 200, "Diocese fetched successfully", d)))
+                    .map(d -> ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag)
+                            .body(new ApiResponse<>(true, 200, "Diocese fetched successfully", d)))
                     .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
                             .body(new ApiResponse<>(false, 404, "Diocese not found", null)));
         } catch (Exception e) {
@@ -0,0 +1,70 @@
+package com.nearchrist.backend.controller;
+
+import com.nearchrist.backend.dto.ApiResponse;
+import com.nearchrist.backend.service.ExportService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Whole-directory dumps for partners and backups, written as they are read from the database and
+ * gzip-compressed on the fly when the client accepts it.
+ */
+@RestController
+@RequestMapping("/export")
+public class ExportController {
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final MediaType APPLICATION_NDJSON = new MediaType("application", "x-ndjson", StandardCharsets.UTF_8);
+
+    private final ExportService service;
+    private final ApiResponseStreamer streamer;
+
+    public ExportController(ExportService service, ApiResponseStreamer streamer) {
+        this.service = service;
+        this.streamer = streamer;
+    }
+
+    @GetMapping("/{kind}")
+    public ResponseEntity<StreamingResponseBody> export(
+            @PathVariable String kind,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) Long state_id,
+            @RequestParam(required = false) Long diocese_id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        try {
+            ExportService.Export export = service.export(kind, format, state_id, diocese_id);
+            boolean gzip = PublicResponseCacheFilter.acceptsGzip(acceptEncoding);
+            StreamingResponseBody body = out -> {
+                if (!gzip) {
+                    export.body().writeTo(out);
+                    return;
+                }
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+                export.body().writeTo(compressed);
+                // Ends the gzip stream but leaves the response open for the container
+                compressed.finish();
+            };
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(export.format() == ExportService.Format.CSV ? TEXT_CSV : APPLICATION_NDJSON)
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            ContentDisposition.attachment().filename(export.fileName()).build().toString())
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (gzip) {
+                response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            return response.body(body);
+        } catch (IllegalArgumentException e) {
+            return streamer.single(HttpStatus.BAD_REQUEST, new ApiResponse<>(false, 400, e.getMessage(), null));
+        } catch (Exception e) {
+            return streamer.single(HttpStatus.INTERNAL_SERVER_ERROR,
+                    new ApiResponse<>(false, 500, "Error exporting " + kind + ": " + e.getMessage(), null));
+        }
+    }
+}
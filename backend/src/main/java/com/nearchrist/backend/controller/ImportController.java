@@ -0,0 +1,54 @@
+package com.nearchrist.backend.controller;
+
+import com.nearchrist.backend.dto.ApiResponse;
+import com.nearchrist.backend.dto.ImportResultDto;
+import com.nearchrist.backend.service.ImportKind;
+import com.nearchrist.backend.service.ImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Optional;
+
+/**
+ * Bulk loads of parishes, adorations or crusades. The body is a CSV file with a header row or a
+ * JSON array of objects, and is read as it arrives rather than bound to a DTO first.
+ */
+@RestController
+@RequestMapping("/import")
+public class ImportController {
+    private final ImportService service;
+
+    public ImportController(ImportService service) {
+        this.service = service;
+    }
+
+    @PostMapping(value = "/{kind}", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ApiResponse<ImportResultDto>> importRows(@PathVariable String kind, HttpServletRequest request) {
+        try {
+            Optional<ImportKind> importKind = ImportKind.fromPath(kind);
+            if (importKind.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ApiResponse<>(false, 404, "Cannot import " + kind + "; use parishes, adorations or crusades", null));
+            }
+            boolean json = MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()));
+            ImportResultDto result = json
+                    ? service.importJson(importKind.get(), request.getInputStream())
+                    : service.importCsv(importKind.get(), request.getInputStream());
+            if (result.rejected() > 0) {
+                return ResponseEntity.badRequest()
+                        .body(new ApiResponse<>(false, 400, result.rejected() + " of " + result.received()
+                                + " rows were rejected; nothing was imported", result));
+            }
+            return ResponseEntity.ok(new ApiResponse<>(true, 200, result.imported() + " " + kind + " imported", result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>(false, 400, e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse<>(false, 500, "Error importing " + kind + ": " + e.getMessage(), null));
+        }
+    }
+}
@@ -3,7 +3,16 @@ package com.nearchrist.backend.controller;
 import com.nearchrist.backend.dto.ParishDto;
 import com.nearchrist.backend.dto.ParishUpsertDto;
 import com.nearchrist.backend.dto.ApiResponse;
+import com.nearchrist.backend.dto.BatchRequestDto;
+import com.nearchrist.backend.dto.BatchResultDto;
+import com.nearchrist.backend.dto.KeysetCursor;
+import com.nearchrist.backend.dto.KeysetPage;
+import com.nearchrist.backend.dto.NearbyParishDto;
 import com.nearchrist.backend.service.ParishService;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -20,21 +29,49 @@ public class ParishController {
     }
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<ParishDto>>> getAll() {
+    public ResponseEntity<ApiResponse<List<ParishDto>>> getAll(
+            @RequestParam(defaultValue = KeysetCursor.SORT_ID) String sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
         try {
-            List<ParishDto> parishes = service.getAllParishes();
-            return ResponseEntity.ok(new ApiResponse<>(true, 200, "All parishes fetched", parishes));
+            // Read before the body, so the tag is never newer than the data it describes
+            String etag = service.currentETag();
+            KeysetPage<ParishDto> page = service.getParishPage(sort, after, limit);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag)
+                    .body(new ApiResponse<>(true, 200, "All parishes fetched", page.items(), page.nextCursor()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>(false, 400, e.getMessage(), null));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ApiResponse<>(false, 500, "Error fetching parishes: " + e.getMessage(), null));
         }
     }
 
+    @GetMapping("/nearest")
+    public ResponseEntity<ApiResponse<List<NearbyParishDto>>> getNearest(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            List<NearbyParishDto> nearest = service.getNearestParishes(lat, lon, limit);
+            return ResponseEntity.ok(new ApiResponse<>(true, 200, "Nearest parishes fetched", nearest));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>(false, 400, e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse<>(false, 500, "Error fetching nearest parishes: " + e.getMessage(), null));
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<ParishDto>> getById(@PathVariable Long id) {
         try {
+            String etag = service.currentETag();
             return service.getParishById(id)
-                    .map(p -> ResponseEntity.ok(new ApiResponse<>(true, 200, "Parish fetched successfully", p)))
+                    .map(p -> ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag)
+                            .body(new ApiResponse<>(true, 200, "Parish fetched successfully", p)))
                     .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
                             .body(new ApiResponse<>(false, 404, "Parish not found", null)));
         } catch (Exception e) {
@@ -59,12 +96,19 @@ public class ParishController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<ApiResponse<ParishDto>> update(@PathVariable Long id, @RequestBody ParishUpsertDto dto) {
+    public ResponseEntity<ApiResponse<ParishDto>> update(@PathVariable Long id, @RequestBody ParishUpsertDto dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            return service.updateParish(id, dto)
+            Long expectedVersion = ifMatch != null ? RecordVersions.fromIfMatch(ifMatch) : dto.parishVersion();
+            return service.updateParish(id, dto, expectedVersion)
                     .map(p -> ResponseEntity.ok(new ApiResponse<>(true, 200, "Parish updated successfully", p)))
                     .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
                             .body(new ApiResponse<>(false, 404, "Parish not found", null)));
+        } catch (OptimisticLockingFailureException e) {
+            // A stale If-Match fails its precondition; a stale version in the body is a conflict
+            HttpStatus status = ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT;
+            return ResponseEntity.status(status)
+                    .body(new ApiResponse<>(false, status.value(), e.getMessage(), null));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                     .body(new ApiResponse<>(false, 400, e.getMessage(), null));
@@ -90,4 +134,26 @@ public class ParishController {
                     .body(new ApiResponse<>(false, 500, "Error deleting parish: " + e.getMessage(), null));
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<BatchResultDto<ParishDto>>> batch(@RequestBody BatchRequestDto<ParishUpsertDto> batch) {
+        try {
+            BatchResultDto<ParishDto> result = service.applyBatch(batch);
+            if (!result.applied()) {
+                int status = result.rejectionStatus();
+                return ResponseEntity.status(status)
+                        .body(new ApiResponse<>(false, status, result.items().size() + " items were rejected; nothing was applied", result));
+            }
+            return ResponseEntity.ok(new ApiResponse<>(true, 200, "Batch applied", result));
+        } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(false, 409, e.getMessage(), null));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>(false, 400, e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse<>(false, 500, "Error applying parish batch: " + e.getMessage(), null));
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.nearchrist.backend.controller;
+
+import com.nearchrist.backend.service.DirectoryAggregate;
+import com.nearchrist.backend.service.DirectoryReadModel;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caches the encoded JSON of successful GETs on states, dioceses, parishes, adorations and crusades,
+ * plus a gzip copy, keyed by path and normalized query parameters. An entry is only served while
+ * its ETag is still the aggregate's current one, so a write to one aggregate invalidates exactly
+ * the responses that embed its data. Hits, and {@code If-None-Match} requests matching a cached
+ * entry, are answered here without reaching the controllers or Jackson; everything else, including
+ * requests for missing rows or with invalid parameters, goes to the controller.
+ */
+@Component
+public class PublicResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final Map<String, DirectoryAggregate> AGGREGATES = Map.of(
+            "/states", DirectoryAggregate.STATE,
+            "/dioceses", DirectoryAggregate.DIOCESE,
+            "/parishes", DirectoryAggregate.PARISH,
+            "/adorations", DirectoryAggregate.ADORATION,
+            "/crusades", DirectoryAggregate.CRUSADE);
+
+    // Every parameter the GET handlers read, in key order; anything else cannot change the response
+    private static final List<String> PARAMETERS = List.of("after", "diocese_id", "limit", "parish_id", "sort", "state_id");
+
+    // Below this the gzip framing outweighs the savings
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    private final DirectoryReadModel readModel;
+    private final Map<String, CachedResponse> cache;
+
+    public PublicResponseCacheFilter(DirectoryReadModel readModel,
+                                     @Value("${response-cache.max-entries:2048}") int maxEntries) {
+        this.readModel = readModel;
+        // Least recently used first, so unusual query parameters evict each other rather than the common pages
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    private record CachedResponse(
+            String etag,
+            String contentType,
+            byte[] identity,
+            byte[] gzip // null when the body is too small to be worth compressing
+    ) {}
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || aggregateOf(pathOf(request)) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = pathOf(request);
+        String etag = readModel.current().etag(aggregateOf(path));
+        boolean acceptsGzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        String key = keyOf(path, request);
+        CachedResponse cached = cache.get(key);
+        // Only a 200 of this exact request is cached, so a missing row or a bad parameter never gets a 304 here
+        if (cached != null && cached.etag().equals(etag)) {
+            if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                response.setHeader(HttpHeaders.ETAG, acceptsGzip && cached.gzip() != null ? gzipETag(etag) : etag);
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+                return;
+            }
+            write(response, cached, acceptsGzip);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+        // The controller tags the response with the data version it read; only keep bodies of the version checked above
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK && etag.equals(wrapper.getHeader(HttpHeaders.ETAG))) {
+            byte[] body = wrapper.getContentAsByteArray();
+            cache.put(key, new CachedResponse(etag, wrapper.getContentType(), body,
+                    body.length >= GZIP_MIN_BYTES ? gzip(body) : null));
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private static void write(HttpServletResponse response, CachedResponse cached, boolean acceptsGzip) throws IOException {
+        byte[] body = cached.identity();
+        String etag = cached.etag();
+        if (acceptsGzip && cached.gzip() != null) {
+            body = cached.gzip();
+            // A strong ETag identifies the exact bytes, so each encoding needs its own
+            etag = gzipETag(etag);
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.contentType());
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    // "/parishes" and "/parishes/{id}" both belong to the parish aggregate; other sub-paths such as
+    // "/adorations/now" depend on more than the data and are never cached here
+    private static DirectoryAggregate aggregateOf(String path) {
+        int end = path.indexOf('/', 1);
+        if (end >= 0 && !path.substring(end + 1).matches("\\d+")) {
+            return null;
+        }
+        return AGGREGATES.get(end < 0 ? path : path.substring(0, end));
+    }
+
+    private static String keyOf(String path, HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(path);
+        for (String name : PARAMETERS) {
+            String value = request.getParameter(name);
+            if (value != null && !value.isEmpty()) {
+                key.append('&').append(name).append('=').append(value);
+            }
+        }
+        return key.toString();
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String gzipETag = gzipETag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag) || tag.equals(gzipETag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String gzipETag(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new IllegalStateException("In-memory gzip failed", e);
+        }
+        return out.toByteArray();
+    }
+}
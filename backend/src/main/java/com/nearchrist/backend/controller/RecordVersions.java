@@ -0,0 +1,35 @@
+package com.nearchrist.backend.controller;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+/**
+ * Reads the record version a PUT expects from its {@code If-Match} header. The tag is the
+ * record's version field as last read, e.g. {@code If-Match: "3"}; {@code *} matches any version.
+ */
+final class RecordVersions {
+
+    private RecordVersions() {
+    }
+
+    /**
+     * @return null for {@code *}
+     * @throws OptimisticLockingFailureException when the tag cannot be a version, so it matches none
+     */
+    static Long fromIfMatch(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.valueOf(tag);
+        } catch (NumberFormatException e) {
+            throw new OptimisticLockingFailureException("If-Match must hold the record's version, e.g. \"3\"");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.nearchrist.backend.controller;
+
+import com.nearchrist.backend.dto.ApiResponse;
+import com.nearchrist.backend.dto.KeysetPage;
+import com.nearchrist.backend.dto.SearchResultDto;
+import com.nearchrist.backend.dto.SuggestionDto;
+import com.nearchrist.backend.service.SearchService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/search")
+public class SearchController {
+    private final SearchService service;
+
+    public SearchController(SearchService service) {
+        this.service = service;
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<SearchResultDto>>> search(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            KeysetPage<SearchResultDto> page = service.search(q, after, limit);
+            return ResponseEntity.ok(new ApiResponse<>(true, 200, "Search results fetched", page.items(), page.nextCursor()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>(false, 400, e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse<>(false, 500, "Error searching: " + e.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<List<SuggestionDto>>> suggest(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            List<SuggestionDto> suggestions = service.suggest(q, limit);
+            return ResponseEntity.ok(new ApiResponse<>(true, 200, "Suggestions fetched", suggestions));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse<>(false, 400, e.getMessage(), null));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse<>(false, 500, "Error fetching suggestions: " + e.getMessage(), null));
+        }
+    }
+}
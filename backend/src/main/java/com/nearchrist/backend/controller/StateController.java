@@ -4,6 +4,7 @@ import com.nearchrist.backend.dto.StateDto;
 import com.nearchrist.backend.dto.StateUpsertDto;
 import com.nearchrist.backend.dto.ApiResponse;
 import com.nearchrist.backend.service.StateService;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -22,8 +23,11 @@ public class StateController {
     @GetMapping
     public ResponseEntity<ApiResponse<List<StateDto>>> getAll() {
         try {
+            // Read before the body, so the tag is never newer than the data it describes
+            String etag = service.currentETag();
             List<StateDto> states = service.getAllStates();
-            return ResponseEntity.ok(new ApiResponse<>(true, 200, "All states fetched", states));
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag)
+                    .body(new ApiResponse<>(true, 200, "All states fetched", states));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ApiResponse<>(false, 500, "Error fetching states: " + e.getMessage(), null));
@@ -33,8 +37,10 @@ public class StateController {
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<StateDto>> getById(@PathVariable Long id) {
         try {
+            String etag = service.currentETag();
             return service.getStateById(id)
-                    .map(s -> ResponseEntity.ok(new ApiResponse<>(true, 200, "State fetched successfully", s)))
+                    .map(s -> ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag)
+                            .body(new ApiResponse<>(true, 200, "State fetched successfully", s)))
                     .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
                             .body(new ApiResponse<>(false, 404, "State not found", null)));
         } catch (Exception e) {
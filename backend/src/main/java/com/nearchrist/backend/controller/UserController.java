@@ -1,6 +1,8 @@
 package com.nearchrist.backend.controller;
 
 import com.nearchrist.backend.dto.ApiResponse;
+import com.nearchrist.backend.dto.KeysetCursor;
+import com.nearchrist.backend.dto.KeysetPage;
 import com.nearchrist.backend.dto.UserDto;
 import com.nearchrist.backend.dto.UserUpsertDto; // A new DTO for create/update operations
 import com.nearchrist.backend.service.UserService;
@@ -8,28 +10,39 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
 
 @RestController
 @RequestMapping("/users") // It's good practice to have a base path for the controller
 public class UserController {
 
     private final UserService userService;
+    private final ApiResponseStreamer streamer;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, ApiResponseStreamer streamer) {
         this.userService = userService;
+        this.streamer = streamer;
     }
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<UserDto>>> getAll() {
+    public ResponseEntity<StreamingResponseBody> getAll(
+            @RequestParam(defaultValue = KeysetCursor.SORT_ID) String sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
         try {
-            // The service now returns a list of UserDto
-            List<UserDto> users = userService.getAllUsers();
-            return ResponseEntity.ok(new ApiResponse<>(true, 200, "All users retrieved successfully", users));
+            if (limit == null && (after == null || after.isBlank()) && KeysetCursor.SORT_ID.equals(sort)) {
+                // The whole table: stream it rather than holding every user and the full body in memory
+                return streamer.<UserDto>list("All users retrieved successfully", userService::streamAllUsers);
+            }
+            KeysetPage<UserDto> page = userService.getUserPage(sort, after, limit);
+            return streamer.single(HttpStatus.OK,
+                    new ApiResponse<>(true, 200, "All users retrieved successfully", page.items(), page.nextCursor()));
+        } catch (IllegalArgumentException e) {
+            return streamer.single(HttpStatus.BAD_REQUEST, new ApiResponse<>(false, 400, e.getMessage(), null));
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new ApiResponse<>(false, 500, "Failed to fetch users: " + e.getMessage(), null));
+            return streamer.single(HttpStatus.INTERNAL_SERVER_ERROR,
+                    new ApiResponse<>(false, 500, "Failed to fetch users: " + e.getMessage(), null));
         }
     }
 
@@ -15,5 +15,6 @@ public record AdorationDto(
         String adorationLocationType,
         String adorationDay,
         LocalTime adorationStart,
-        LocalTime adorationEnd
+        LocalTime adorationEnd,
+        Long adorationVersion
 ) {}
\ No newline at end of file
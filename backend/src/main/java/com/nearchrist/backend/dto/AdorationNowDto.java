@@ -0,0 +1,10 @@
+package com.nearchrist.backend.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record AdorationNowDto(
+        List<AdorationDto> happeningNow,
+        List<AdorationDto> startingSoon,
+        Instant validUntil
+) {}
@@ -0,0 +1,9 @@
+package com.nearchrist.backend.dto;
+
+import java.time.OffsetDateTime;
+
+public record AdorationOccurrenceDto(
+        OffsetDateTime start, // local time of the adoration's state, with its offset on that date
+        OffsetDateTime end,
+        AdorationDto adoration
+) {}
@@ -11,5 +11,7 @@ public record AdorationUpsertDto(
         String adorationLocationType,
         String adorationDay,
         LocalTime adorationStart,
-        LocalTime adorationEnd
+        LocalTime adorationEnd,
+        // The version last read; when set (or sent as If-Match), an update only applies to that version
+        Long adorationVersion
 ) {}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.nearchrist.backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -10,4 +11,11 @@ public class ApiResponse<T> {
     private int status;
     private String message;
     private T data;
-}
\ No newline at end of file
+    // Opaque keyset cursor for the next page of a list; omitted when there are no more rows
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
+    public ApiResponse(boolean success, int status, String message, T data) {
+        this(success, status, message, data, null);
+    }
+}
@@ -0,0 +1,10 @@
+package com.nearchrist.backend.dto;
+
+public record BatchItemResultDto<T>(
+        String operation, // create, update or delete
+        int index, // position within that operation's list of the request
+        Long id,
+        int status,
+        String message,
+        T data // the saved row; null for deletes and rejected items
+) {}
@@ -0,0 +1,13 @@
+package com.nearchrist.backend.dto;
+
+import java.util.List;
+
+/**
+ * One round trip of admin edits: rows to create, rows to update and ids to delete. Any list may be
+ * omitted. The batch is applied in one transaction, and only if every item is valid.
+ */
+public record BatchRequestDto<T>(
+        List<T> create,
+        List<BatchUpdateDto<T>> update,
+        List<Long> delete
+) {}
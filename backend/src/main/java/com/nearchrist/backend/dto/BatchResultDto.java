@@ -0,0 +1,16 @@
+package com.nearchrist.backend.dto;
+
+import java.util.List;
+
+public record BatchResultDto<T>(
+        boolean applied, // false when any item was rejected; nothing is written then
+        int created,
+        int updated,
+        int deleted,
+        List<BatchItemResultDto<T>> items // every item when applied, otherwise the rejected ones
+) {
+    // 409 when any rejected item conflicts with the stored data, 400 when all are invalid requests
+    public int rejectionStatus() {
+        return items.stream().anyMatch(item -> item.status() == 409) ? 409 : 400;
+    }
+}
@@ -0,0 +1,6 @@
+package com.nearchrist.backend.dto;
+
+public record BatchUpdateDto<T>(
+        Long id,
+        T data
+) {}
@@ -0,0 +1,10 @@
+package com.nearchrist.backend.dto;
+
+import java.util.List;
+
+public record CoverageDto(
+        int coveredMinutes,
+        double coveragePercent,
+        List<CoverageGapDto> gaps, // longest first
+        int[][] heatmap // [day, Monday first][hour]: minutes of that hour with adoration scheduled, 0-60
+) {}
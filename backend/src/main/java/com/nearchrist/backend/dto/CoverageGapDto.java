@@ -0,0 +1,12 @@
+package com.nearchrist.backend.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+public record CoverageGapDto(
+        DayOfWeek startDay,
+        LocalTime start,
+        DayOfWeek endDay, // end is exclusive: the first covered minute after the gap
+        LocalTime end,
+        int minutes
+) {}
@@ -19,5 +19,6 @@ public record CrusadeDto(
         String contactName,
         String contactPhone,
         String contactEmail,
-        String comments
+        String comments,
+        Long crusadeVersion
 ) {}
\ No newline at end of file
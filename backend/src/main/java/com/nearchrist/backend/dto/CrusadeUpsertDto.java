@@ -15,5 +15,7 @@ public record CrusadeUpsertDto(
         String contactName,
         String contactPhone,
         String contactEmail,
-        String comments
+        String comments,
+        // The version last read; when set (or sent as If-Match), an update only applies to that version
+        Long crusadeVersion
 ) {}
\ No newline at end of file
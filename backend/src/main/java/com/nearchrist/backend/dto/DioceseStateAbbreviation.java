@@ -0,0 +1,25 @@
+package com.nearchrist.backend.dto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * One state a diocese has parishes in; rows of the grouped query behind
+ * {@link DioceseDto#associatedStateAbbreviations()}.
+ */
+public record DioceseStateAbbreviation(
+        Long dioceseId,
+        String stateAbbreviation
+) {
+    /**
+     * Collects the rows into each diocese's abbreviation list. Rows are already distinct per
+     * diocese; sorting here rather than in SQL keeps the String order independent of the
+     * database collation.
+     */
+    public static Map<Long, List<String>> groupByDiocese(List<DioceseStateAbbreviation> rows) {
+        return rows.stream().collect(Collectors.groupingBy(DioceseStateAbbreviation::dioceseId,
+                Collectors.mapping(DioceseStateAbbreviation::stateAbbreviation,
+                        Collectors.collectingAndThen(Collectors.toList(), list -> list.stream().sorted().toList()))));
+    }
+}
@@ -0,0 +1,6 @@
+package com.nearchrist.backend.dto;
+
+public record ImportErrorDto(
+        int row, // 1-based data row, not counting the CSV header
+        String message
+) {}
@@ -0,0 +1,12 @@
+package com.nearchrist.backend.dto;
+
+import java.util.List;
+
+public record ImportResultDto(
+        int received,
+        int imported, // 0 unless every row was valid: an import is all or nothing
+        int rejected,
+        List<ImportErrorDto> errors, // the first errors, in row order; rejected counts them all
+        long elapsedMs,
+        long rowsPerSecond
+) {}
@@ -0,0 +1,73 @@
+package com.nearchrist.backend.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paginated list: the sort it belongs to plus the sort key and id
+ * of the last row already returned. Clients only ever see the opaque encoded form.
+ */
+public record KeysetCursor(
+        String sort,
+        String key,
+        long id
+) {
+    public static final String SORT_ID = "id";
+    public static final String SORT_NAME = "name";
+    public static final String SORT_RANK = "rank";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /**
+     * The position before the first row. An empty key sorts before any name and
+     * identity columns start at 1, so "greater than" this position matches every row.
+     */
+    public static KeysetCursor start(String sort) {
+        return new KeysetCursor(sort, "", 0L);
+    }
+
+    /**
+     * Resolves the {@code sort} and {@code after} request parameters against the sorts
+     * an endpoint supports. A missing cursor means the first page.
+     */
+    public static KeysetCursor parse(String sort, String after, String... supportedSorts) {
+        if (!Arrays.asList(supportedSorts).contains(sort)) {
+            throw new IllegalArgumentException("Unsupported sort '" + sort + "', expected one of " + Arrays.toString(supportedSorts));
+        }
+        if (after == null || after.isBlank()) {
+            return start(sort);
+        }
+        String[] parts;
+        long id;
+        try {
+            parts = new String(DECODER.decode(after), StandardCharsets.UTF_8).split("\n", 3);
+            id = parts.length == 3 ? Long.parseLong(parts[1]) : -1;
+        } catch (IllegalArgumentException e) {
+            // Malformed Base64 or id (NumberFormatException)
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (parts.length != 3 || id < 0) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (!parts[0].equals(sort)) {
+            throw new IllegalArgumentException("Cursor does not belong to sort '" + sort + "'");
+        }
+        return new KeysetCursor(sort, parts[2], id);
+    }
+
+    /**
+     * Whether a row with the given sort key and id comes after this position, i.e. the
+     * in-memory equivalent of {@code (key, id) > (:after_key, :after_id)}. Id-sorted rows
+     * pass an empty key.
+     */
+    public boolean isBefore(String rowKey, long rowId) {
+        int byKey = rowKey.compareTo(key);
+        return byKey > 0 || (byKey == 0 && rowId > id);
+    }
+
+    public String encode() {
+        return ENCODER.encodeToString((sort + "\n" + id + "\n" + key).getBytes(StandardCharsets.UTF_8));
+    }
+}
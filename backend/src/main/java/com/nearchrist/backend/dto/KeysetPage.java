@@ -0,0 +1,67 @@
+package com.nearchrist.backend.dto;
+
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * One page of a keyset-paginated list and the cursor for the page after it.
+ */
+public record KeysetPage<T>(
+        List<T> items,
+        String nextCursor // null when this is the last page
+) {
+    public static final int MAX_LIMIT = 500;
+
+    /**
+     * Validates the {@code limit} request parameter. A null limit means the whole
+     * (remaining) list is returned in one response.
+     */
+    public static void checkLimit(Integer limit) {
+        if (limit != null && (limit < 1 || limit > MAX_LIMIT)) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+    }
+
+    /**
+     * Number of rows to fetch: one more than the page size, so the presence of a
+     * following page is known without a count query.
+     */
+    public static Limit fetchLimit(Integer limit) {
+        return limit == null ? Limit.unlimited() : Limit.of(limit + 1);
+    }
+
+    /**
+     * Builds a page from rows fetched with {@link #fetchLimit(Integer)}.
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, Integer limit, Function<T, KeysetCursor> cursorOf) {
+        if (limit == null || rows.size() <= limit) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new KeysetPage<>(items, cursorOf.apply(items.get(limit - 1)).encode());
+    }
+
+    /**
+     * Builds a page from an in-memory list already sorted in cursor order, starting at the
+     * first row {@code isAfterCursor} accepts. The start is found by binary search, so the
+     * cost does not grow with the page number.
+     */
+    public static <T> KeysetPage<T> slice(List<T> sortedRows, Integer limit, Predicate<T> isAfterCursor,
+                                          Function<T, KeysetCursor> cursorOf) {
+        int low = 0;
+        int high = sortedRows.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (isAfterCursor.test(sortedRows.get(mid))) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        int end = limit == null ? sortedRows.size() : (int) Math.min(sortedRows.size(), (long) low + limit + 1);
+        return of(sortedRows.subList(low, end), limit, cursorOf);
+    }
+}
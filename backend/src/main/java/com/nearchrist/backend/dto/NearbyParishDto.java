@@ -0,0 +1,10 @@
+package com.nearchrist.backend.dto;
+
+import java.util.List;
+
+public record NearbyParishDto(
+        ParishDto parish,
+        double distanceKm,
+        List<AdorationDto> adorations,
+        List<CrusadeDto> crusades
+) {}
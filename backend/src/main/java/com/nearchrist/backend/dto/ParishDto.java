@@ -13,5 +13,8 @@ public record ParishDto(
         Long dioceseId,
         String dioceseName,
         Long stateId,
-        String stateAbbreviation
+        String stateAbbreviation,
+        Double parishLatitude,
+        Double parishLongitude,
+        Long parishVersion
 ) {}
\ No newline at end of file
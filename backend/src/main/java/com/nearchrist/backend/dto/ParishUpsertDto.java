@@ -10,5 +10,9 @@ public record ParishUpsertDto(
         String parishEmail,
         String parishWebsite,
         Long dioceseId,
-        Long stateId
+        Long stateId,
+        Double parishLatitude,
+        Double parishLongitude,
+        // The version last read; when set (or sent as If-Match), an update only applies to that version
+        Long parishVersion
 ) {}
\ No newline at end of file
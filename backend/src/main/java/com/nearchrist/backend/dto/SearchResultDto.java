@@ -0,0 +1,11 @@
+package com.nearchrist.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SearchResultDto(
+        String type, // ADORATION or CRUSADE; exactly the matching one of the two DTOs is set
+        float score,
+        AdorationDto adoration,
+        CrusadeDto crusade
+) {}
@@ -3,5 +3,6 @@ package com.nearchrist.backend.dto;
 public record StateDto(
         Long stateId,
         String stateName,
-        String stateAbbreviation
+        String stateAbbreviation,
+        String stateTimeZone
 ) {}
\ No newline at end of file
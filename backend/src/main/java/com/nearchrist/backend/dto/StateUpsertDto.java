@@ -2,5 +2,6 @@ package com.nearchrist.backend.dto;
 
 public record StateUpsertDto(
         String stateName,
-        String stateAbbreviation
+        String stateAbbreviation,
+        String stateTimeZone
 ) {}
\ No newline at end of file
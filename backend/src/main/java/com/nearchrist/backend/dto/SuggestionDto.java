@@ -0,0 +1,8 @@
+package com.nearchrist.backend.dto;
+
+public record SuggestionDto(
+        String type, // PARISH, DIOCESE, SUBURB or POSTCODE
+        Long id, // parish or diocese id; null for suburbs and postcodes
+        String label,
+        String detail
+) {}
@@ -0,0 +1,19 @@
+package com.nearchrist.backend.dto;
+
+import java.util.Set;
+
+/**
+ * One (user, role) row of the streamed user list; a user without roles has a single row with
+ * a null role name.
+ */
+public record UserRoleRow(
+        Long id,
+        String userFullName,
+        String userEmail,
+        boolean enabled,
+        String roleName
+) {
+    public UserDto toDto(Set<String> roles) {
+        return new UserDto(id, userFullName, userEmail, enabled, roles);
+    }
+}
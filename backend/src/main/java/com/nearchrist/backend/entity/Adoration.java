@@ -10,20 +10,24 @@ import java.time.LocalTime;
 @Table(name = "adorations")
 public class Adoration {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "adorationId")
+    @SequenceGenerator(name = "adorationId", sequenceName = "adorations_adoration_id_seq", allocationSize = 50)
     private Long adorationId;
 
-    @ManyToOne
+    @Version
+    private Long adorationVersion;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "state_id")
     @JsonBackReference
     private State state;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "diocese_id")
     @JsonBackReference("diocese-adorations")
     private Diocese diocese;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "parish_id")
     @JsonBackReference("parish-adorations")
     private Parish parish;
@@ -10,20 +10,24 @@ import java.time.LocalTime;
 @Table(name = "crusades")
 public class Crusade {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "crusadeId")
+    @SequenceGenerator(name = "crusadeId", sequenceName = "crusades_crusade_id_seq", allocationSize = 50)
     private Long crusadeId;
 
-    @ManyToOne
+    @Version
+    private Long crusadeVersion;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "state_id")
     @JsonBackReference
     private State state;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "diocese_id")
     @JsonBackReference("diocese-crusades")
     private Diocese diocese;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "parish_id")
     @JsonBackReference("parish-crusades")
     private Parish parish;
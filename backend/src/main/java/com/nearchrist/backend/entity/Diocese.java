@@ -13,7 +13,8 @@ import java.util.List;
 @Table(name = "dioceses")
 public class Diocese {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "dioceseId")
+    @SequenceGenerator(name = "dioceseId", sequenceName = "dioceses_diocese_id_seq", allocationSize = 50)
     private Long dioceseId;
     @Column(nullable = false)
     private String dioceseName;
@@ -11,9 +11,15 @@ import java.util.List;
 @Table(name = "parishes")
 public class Parish {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Every entity takes ids from its table's sequence 50 at a time (V16), so inserts can be batched
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "parishId")
+    @SequenceGenerator(name = "parishId", sequenceName = "parishes_parish_id_seq", allocationSize = 50)
     private Long parishId;
 
+    // Checked and bumped by every UPDATE (V17), so concurrent edits conflict instead of overwriting
+    @Version
+    private Long parishVersion;
+
     @Column(nullable = false)
     private String parishName;
 
@@ -31,19 +37,25 @@ public class Parish {
 
     private String parishWebsite;
 
-    @ManyToOne
+    // WGS84 degrees; when not supplied they are taken from the locality centroid dataset
+    private Double parishLatitude;
+
+    private Double parishLongitude;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "diocese_id")
     private Diocese diocese;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "state_id")
     private State state;
 
-    @OneToMany(mappedBy = "parish", cascade = CascadeType.ALL)
+    // No cascade: deleting a parish must never take its adorations or crusades with it
+    @OneToMany(mappedBy = "parish")
     @JsonManagedReference("parish-adorations")
     private List<Adoration> adorations;
 
-    @OneToMany(mappedBy = "parish", cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "parish")
     @JsonManagedReference("parish-crusades")
     private List<Crusade> crusades;
 }
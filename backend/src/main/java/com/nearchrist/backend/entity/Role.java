@@ -13,7 +13,8 @@ import lombok.NoArgsConstructor;
 public class Role {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "roleId")
+    @SequenceGenerator(name = "roleId", sequenceName = "roles_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -8,11 +8,16 @@ import lombok.Data;
 @Table(name = "states")
 public class State {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stateId")
+    @SequenceGenerator(name = "stateId", sequenceName = "states_state_id_seq", allocationSize = 50)
     private Long stateId;
 
     @Column(nullable = false)
     private String stateName;
 
     private String stateAbbreviation;
+
+    // IANA zone id; adoration and crusade times in this state are local to it
+    @Column(nullable = false)
+    private String stateTimeZone;
 }
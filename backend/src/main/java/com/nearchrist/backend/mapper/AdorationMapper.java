@@ -5,6 +5,7 @@ import com.nearchrist.backend.dto.AdorationUpsertDto;
 import com.nearchrist.backend.entity.Adoration;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
 
 import java.util.List;
 
@@ -20,8 +21,10 @@ public interface AdorationMapper {
 
     List<AdorationDto> toDtoList(List<Adoration> adorations);
 
-    @Mapping(source = "stateId", target = "state.stateId")
-    @Mapping(source = "dioceseId", target = "diocese.dioceseId")
-    @Mapping(source = "parishId", target = "parish.parishId")
-    Adoration toEntity(AdorationUpsertDto dto);
-}
\ No newline at end of file
+    @Mapping(target = "adorationId", ignore = true)
+    @Mapping(target = "adorationVersion", ignore = true)
+    @Mapping(target = "state", ignore = true)
+    @Mapping(target = "diocese", ignore = true)
+    @Mapping(target = "parish", ignore = true)
+    void updateEntity(AdorationUpsertDto dto, @MappingTarget Adoration entity);
+}
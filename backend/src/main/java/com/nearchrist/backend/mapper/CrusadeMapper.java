@@ -5,6 +5,7 @@ import com.nearchrist.backend.dto.CrusadeUpsertDto;
 import com.nearchrist.backend.entity.Crusade;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
 
 import java.util.List;
 
@@ -20,8 +21,10 @@ public interface CrusadeMapper {
 
     List<CrusadeDto> toDtoList(List<Crusade> crusades);
 
-    @Mapping(source = "stateId", target = "state.stateId")
-    @Mapping(source = "dioceseId", target = "diocese.dioceseId")
-    @Mapping(source = "parishId", target = "parish.parishId")
-    Crusade toEntity(CrusadeUpsertDto dto);
-}
\ No newline at end of file
+    @Mapping(target = "crusadeId", ignore = true)
+    @Mapping(target = "crusadeVersion", ignore = true)
+    @Mapping(target = "state", ignore = true)
+    @Mapping(target = "diocese", ignore = true)
+    @Mapping(target = "parish", ignore = true)
+    void updateEntity(CrusadeUpsertDto dto, @MappingTarget Crusade entity);
+}
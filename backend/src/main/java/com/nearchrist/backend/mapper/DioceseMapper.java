@@ -14,10 +14,9 @@ public interface DioceseMapper {
 
     DioceseMapper INSTANCE = Mappers.getMapper(DioceseMapper.class);
 
-    @Mapping(target = "associatedStateAbbreviations", expression = "java(diocese.getParishes() != null ? diocese.getParishes().stream().map(p -> p.getState().getStateAbbreviation()).filter(java.util.Objects::nonNull).distinct().sorted().collect(java.util.stream.Collectors.toList()) : java.util.List.of())")
-    DioceseDto toDto(Diocese diocese);
-
-    List<DioceseDto> toDtoList(List<Diocese> dioceses);
+    // The abbreviations come from DioceseRepository's grouped query, so parishes are never loaded
+    @Mapping(target = "associatedStateAbbreviations", source = "associatedStateAbbreviations")
+    DioceseDto toDto(Diocese diocese, List<String> associatedStateAbbreviations);
 
     @Mapping(target = "dioceseId", ignore = true)
     @Mapping(target = "parishes", ignore = true)
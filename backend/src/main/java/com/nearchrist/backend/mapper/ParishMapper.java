@@ -5,6 +5,7 @@ import com.nearchrist.backend.dto.ParishUpsertDto;
 import com.nearchrist.backend.entity.Parish;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
 
 import java.util.List;
 
@@ -18,9 +19,11 @@ public interface ParishMapper {
 
     List<ParishDto> toDtoList(List<Parish> parishes);
 
-    @Mapping(source = "dioceseId", target = "diocese.dioceseId")
-    @Mapping(source = "stateId", target = "state.stateId")
+    @Mapping(target = "parishId", ignore = true)
+    @Mapping(target = "parishVersion", ignore = true)
+    @Mapping(target = "diocese", ignore = true)
+    @Mapping(target = "state", ignore = true)
     @Mapping(target = "adorations", ignore = true)
     @Mapping(target = "crusades", ignore = true)
-    Parish toEntity(ParishUpsertDto dto);
-}
\ No newline at end of file
+    void updateEntity(ParishUpsertDto dto, @MappingTarget Parish entity);
+}
@@ -1,19 +1,40 @@
 package com.nearchrist.backend.repository;
 
+import com.nearchrist.backend.dto.AdorationDto;
 import com.nearchrist.backend.entity.Adoration;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface AdorationRepository extends JpaRepository<Adoration, Long> {
-    @Query("SELECT a FROM Adoration a WHERE " +
-            "(:state_id IS NULL OR a.state.stateId = :state_id) AND " +
-            "(:diocese_id IS NULL OR a.diocese.dioceseId = :diocese_id) AND " +
-            "(:parish_id IS NULL OR a.parish.parishId = :parish_id)")
-    List<Adoration> findByFilters(
-            @Param("state_id") Long stateId,
-            @Param("diocese_id") Long dioceseId,
-            @Param("parish_id") Long parishId);
-}
\ No newline at end of file
+    String SELECT_DTO = "SELECT new com.nearchrist.backend.dto.AdorationDto(" +
+            "a.adorationId, s.stateId, s.stateAbbreviation, d.dioceseId, d.dioceseName, p.parishId, p.parishName, " +
+            "a.adorationType, a.adorationLocation, a.adorationLocationType, a.adorationDay, a.adorationStart, a.adorationEnd, a.adorationVersion) " +
+            "FROM Adoration a JOIN a.state s JOIN a.diocese d JOIN a.parish p ";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_DTO + "ORDER BY a.adorationId")
+    Stream<AdorationDto> streamAllDtos();
+
+    @Query(SELECT_DTO + "WHERE a.adorationId IN :ids")
+    List<AdorationDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Ranked matches after the cursor in (score, type, id) descending order; the GIN index on
+    // search_vector (V15) finds the matching rows, so only those are scored
+    @Query(value = "SELECT a.adoration_id AS id, ts_rank_cd(a.search_vector, q) AS score " +
+            "FROM adorations a, websearch_to_tsquery('english', :query) q " +
+            "WHERE a.search_vector @@ q " +
+            "AND (ts_rank_cd(a.search_vector, q), CAST('ADORATION' AS text), a.adoration_id) " +
+            "< (CAST(:after_score AS real), CAST(:after_type AS text), :after_id) " +
+            "ORDER BY score DESC, a.adoration_id DESC LIMIT :limit", nativeQuery = true)
+    List<TextSearchHit> searchText(@Param("query") String query, @Param("after_score") float afterScore,
+                                   @Param("after_type") String afterType, @Param("after_id") long afterId,
+                                   @Param("limit") int limit);
+}
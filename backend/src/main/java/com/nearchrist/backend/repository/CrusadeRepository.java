@@ -1,19 +1,41 @@
 package com.nearchrist.backend.repository;
 
+import com.nearchrist.backend.dto.CrusadeDto;
 import com.nearchrist.backend.entity.Crusade;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface CrusadeRepository extends JpaRepository<Crusade, Long> {
-    @Query("SELECT c FROM Crusade c WHERE " +
-            "(:state_id IS NULL OR c.state.stateId = :state_id) AND " +
-            "(:diocese_id IS NULL OR c.diocese.dioceseId = :diocese_id) AND " +
-            "(:parish_id IS NULL OR c.parish.parishId = :parish_id)")
-    List<Crusade> findByFilters(
-            @Param("state_id") Long stateId,
-            @Param("diocese_id") Long dioceseId,
-            @Param("parish_id") Long parishId);
-}
\ No newline at end of file
+    String SELECT_DTO = "SELECT new com.nearchrist.backend.dto.CrusadeDto(" +
+            "c.crusadeId, s.stateId, s.stateAbbreviation, d.dioceseId, d.dioceseName, p.parishId, p.parishName, " +
+            "c.confessionStartTime, c.confessionEndTime, c.massStartTime, c.massEndTime, c.crusadeStartTime, c.crusadeEndTime, " +
+            "c.contactName, c.contactPhone, c.contactEmail, c.comments, c.crusadeVersion) " +
+            "FROM Crusade c JOIN c.state s JOIN c.diocese d JOIN c.parish p ";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_DTO + "ORDER BY c.crusadeId")
+    Stream<CrusadeDto> streamAllDtos();
+
+    @Query(SELECT_DTO + "WHERE c.crusadeId IN :ids")
+    List<CrusadeDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Ranked matches after the cursor in (score, type, id) descending order; the GIN index on
+    // search_vector (V15) finds the matching rows, so only those are scored
+    @Query(value = "SELECT c.crusade_id AS id, ts_rank_cd(c.search_vector, q) AS score " +
+            "FROM crusades c, websearch_to_tsquery('english', :query) q " +
+            "WHERE c.search_vector @@ q " +
+            "AND (ts_rank_cd(c.search_vector, q), CAST('CRUSADE' AS text), c.crusade_id) " +
+            "< (CAST(:after_score AS real), CAST(:after_type AS text), :after_id) " +
+            "ORDER BY score DESC, c.crusade_id DESC LIMIT :limit", nativeQuery = true)
+    List<TextSearchHit> searchText(@Param("query") String query, @Param("after_score") float afterScore,
+                                   @Param("after_type") String afterType, @Param("after_id") long afterId,
+                                   @Param("limit") int limit);
+}
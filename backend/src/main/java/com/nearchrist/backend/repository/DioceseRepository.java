@@ -1,18 +1,24 @@
 package com.nearchrist.backend.repository;
 
+import com.nearchrist.backend.dto.DioceseStateAbbreviation;
 import com.nearchrist.backend.entity.Diocese;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 public interface DioceseRepository extends JpaRepository<Diocese, Long> {
 
-    @Query("SELECT DISTINCT d FROM Diocese d LEFT JOIN FETCH d.parishes p LEFT JOIN FETCH p.state")
-    List<Diocese> findAllWithParishes();
+    // The states a diocese's parishes are in: one row per (diocese, state) rather than per parish
+    @Query("SELECT new com.nearchrist.backend.dto.DioceseStateAbbreviation(p.diocese.dioceseId, s.stateAbbreviation) " +
+            "FROM Parish p JOIN p.state s WHERE s.stateAbbreviation IS NOT NULL " +
+            "GROUP BY p.diocese.dioceseId, s.stateAbbreviation")
+    List<DioceseStateAbbreviation> findAllStateAbbreviations();
 
-    @Query("SELECT DISTINCT d FROM Diocese d LEFT JOIN FETCH d.parishes p LEFT JOIN FETCH p.state WHERE d.dioceseId = :id")
-    Optional<Diocese> findByIdWithParishes(@Param("id") Long id);
-}
\ No newline at end of file
+    @Query("SELECT new com.nearchrist.backend.dto.DioceseStateAbbreviation(p.diocese.dioceseId, s.stateAbbreviation) " +
+            "FROM Parish p JOIN p.state s WHERE p.diocese.dioceseId IN :ids AND s.stateAbbreviation IS NOT NULL " +
+            "GROUP BY p.diocese.dioceseId, s.stateAbbreviation")
+    List<DioceseStateAbbreviation> findStateAbbreviationsByDioceseIdIn(@Param("ids") Collection<Long> ids);
+}
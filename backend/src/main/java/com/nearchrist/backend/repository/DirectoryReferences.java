@@ -0,0 +1,17 @@
+package com.nearchrist.backend.repository;
+
+/**
+ * The rows a parish, adoration or crusade refers to, read in one query. Diocese and parish names
+ * are never null in the tables, so a null name means the row does not exist.
+ */
+public interface DirectoryReferences {
+    Boolean getStateExists();
+
+    String getStateAbbreviation();
+
+    String getDioceseName();
+
+    String getParishName();
+
+    Long getParishDioceseId();
+}
@@ -1,8 +1,48 @@
 package com.nearchrist.backend.repository;
 
+import com.nearchrist.backend.dto.ParishDto;
 import com.nearchrist.backend.entity.Parish;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface ParishRepository extends JpaRepository<Parish, Long> {
+    String SELECT_DTO = "SELECT new com.nearchrist.backend.dto.ParishDto(" +
+            "p.parishId, p.parishName, p.parishStNumber, p.parishStName, p.parishSuburb, p.parishPostcode, " +
+            "p.parishPhone, p.parishEmail, p.parishWebsite, d.dioceseId, d.dioceseName, s.stateId, s.stateAbbreviation, " +
+            "p.parishLatitude, p.parishLongitude, p.parishVersion) " +
+            "FROM Parish p JOIN p.diocese d JOIN p.state s ";
+
     long countByDioceseDioceseId(Long dioceseId);
-}
\ No newline at end of file
+
+    @EntityGraph(attributePaths = "state")
+    List<Parish> findByParishLatitudeIsNullOrParishLongitudeIsNull();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_DTO + "ORDER BY p.parishId")
+    Stream<ParishDto> streamAllDtos();
+
+    // Everything a write refers to in one round trip; parishId may be null when there is no parish
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM states WHERE state_id = CAST(:stateId AS bigint)) AS \"stateExists\", " +
+            "(SELECT state_abbreviation FROM states WHERE state_id = CAST(:stateId AS bigint)) AS \"stateAbbreviation\", " +
+            "(SELECT diocese_name FROM dioceses WHERE diocese_id = CAST(:dioceseId AS bigint)) AS \"dioceseName\", " +
+            "(SELECT parish_name FROM parishes WHERE parish_id = CAST(:parishId AS bigint)) AS \"parishName\", " +
+            "(SELECT diocese_id FROM parishes WHERE parish_id = CAST(:parishId AS bigint)) AS \"parishDioceseId\"",
+            nativeQuery = true)
+    DirectoryReferences findReferences(@Param("stateId") Long stateId, @Param("dioceseId") Long dioceseId,
+                                       @Param("parishId") Long parishId);
+
+    // The parishes among ids that adorations or crusades still refer to, and so cannot be deleted
+    @Query(value = "SELECT parish_id FROM adorations WHERE parish_id IN (:ids) " +
+            "UNION SELECT parish_id FROM crusades WHERE parish_id IN (:ids)",
+            nativeQuery = true)
+    List<Long> findReferencedIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,10 @@
+package com.nearchrist.backend.repository;
+
+/**
+ * One full-text match: the row id and its ts_rank_cd score.
+ */
+public interface TextSearchHit {
+    Long getId();
+
+    Float getScore();
+}
@@ -1,9 +1,49 @@
 package com.nearchrist.backend.repository;
 
+import com.nearchrist.backend.dto.UserRoleRow;
 import com.nearchrist.backend.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Roles are lazy; reads that need them join them in the same select. Keyset pages
+    // cannot fetch-join a collection under a SQL limit, so their roles are batch-fetched.
+    @EntityGraph(attributePaths = "roles")
     Optional<User> findByUserEmail(String email);
-}
\ No newline at end of file
+
+    @Override
+    @EntityGraph(attributePaths = "roles")
+    List<User> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "roles")
+    Optional<User> findById(Long id);
+
+    @Query("SELECT u FROM User u WHERE u.id > :after_id ORDER BY u.id")
+    List<User> findPageById(@Param("after_id") long afterId, Limit limit);
+
+    @Query("SELECT u FROM User u WHERE (u.userFullName, u.id) > (:after_name, :after_id) ORDER BY u.userFullName, u.id")
+    List<User> findPageByName(@Param("after_name") String afterName, @Param("after_id") long afterId, Limit limit);
+
+    // One row per (user, role) ordered by user, so each user's rows are adjacent; read in
+    // fetch-size chunks without hydrating any entity
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.nearchrist.backend.dto.UserRoleRow(u.id, u.userFullName, u.userEmail, u.enabled, r.name) " +
+            "FROM User u LEFT JOIN u.roles r ORDER BY u.id")
+    Stream<UserRoleRow> streamAllWithRoleNames();
+
+    // The JWT filter's account check: one row per role of one user, without hydrating the user
+    @Query("SELECT new com.nearchrist.backend.dto.UserRoleRow(u.id, u.userFullName, u.userEmail, u.enabled, r.name) " +
+            "FROM User u LEFT JOIN u.roles r WHERE u.id = :id")
+    List<UserRoleRow> findRoleRowsById(@Param("id") Long id);
+}
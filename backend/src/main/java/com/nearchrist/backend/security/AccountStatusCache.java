@@ -0,0 +1,87 @@
+package com.nearchrist.backend.security;
+
+import com.nearchrist.backend.dto.UserRoleRow;
+import com.nearchrist.backend.repository.UserRepository;
+import com.nearchrist.backend.service.UserChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Whether the account a token was issued to may still use it: it exists, is enabled, and has the
+ * email and roles the token was issued with. Each account is read with one query and then trusted
+ * for {@code security.account-status.ttl-ms}. An update or delete through {@code UserService}
+ * drops the entry as soon as it commits, and anything else is picked up when the entry expires.
+ */
+@Component
+public class AccountStatusCache {
+    // Far more than the number of admin accounts; beyond it the least recently used entry goes
+    private static final int MAX_ENTRIES = 1024;
+
+    private final UserRepository userRepository;
+    private final long ttlNanos;
+    private final Map<Long, Status> statuses = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Status> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    });
+    // How many changes to each account have committed; one counter per account ever changed, and
+    // there are only a handful of admin accounts
+    private final Map<Long, Long> generations = new ConcurrentHashMap<>();
+
+    public AccountStatusCache(UserRepository userRepository,
+                              @Value("${security.account-status.ttl-ms:60000}") long ttlMs) {
+        this.userRepository = userRepository;
+        this.ttlNanos = ttlMs * 1_000_000;
+    }
+
+    // A deleted account is cached too, as a disabled one without email or roles
+    private record Status(String email, boolean enabled, Set<String> roles, long checkedAt) {}
+
+    public boolean allows(Long userId, String email, Collection<String> roles) {
+        long now = System.nanoTime();
+        Status status = statuses.get(userId);
+        if (status == null || now - status.checkedAt() > ttlNanos) {
+            long generation = generations.getOrDefault(userId, 0L);
+            status = load(userId, now);
+            synchronized (statuses) {
+                // A change that committed during the load may be missing from it; it then only
+                // answers this request, rather than outliving the invalidation for a whole TTL
+                if (generations.getOrDefault(userId, 0L) == generation) {
+                    statuses.put(userId, status);
+                }
+            }
+        }
+        return status.enabled() && status.email().equals(email) && status.roles().equals(Set.copyOf(roles));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        synchronized (statuses) {
+            generations.merge(event.userId(), 1L, Long::sum);
+            statuses.remove(event.userId());
+        }
+    }
+
+    private Status load(Long userId, long now) {
+        List<UserRoleRow> rows = userRepository.findRoleRowsById(userId);
+        if (rows.isEmpty()) {
+            return new Status(null, false, Set.of(), now);
+        }
+        Set<String> roles = rows.stream()
+                .map(UserRoleRow::roleName)
+                .filter(name -> name != null)
+                .collect(Collectors.toUnmodifiableSet());
+        return new Status(rows.get(0).userEmail(), rows.get(0).enabled(), roles, now);
+    }
+}
@@ -1,29 +1,30 @@
 package com.nearchrist.backend.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final AccountStatusCache accountStatuses;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, AccountStatusCache accountStatuses) {
         this.jwtUtil = jwtUtil;
-        this.userDetailsService = userDetailsService;
+        this.accountStatuses = accountStatuses;
     }
 
     @Override
@@ -31,18 +32,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            String username = (jwt != null) ? jwtUtil.extractUsername(jwt) : null;
 
             // Check if the token is valid and there's no existing authentication in the context
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            if (jwt != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                // One signature check per token while it stays cached, not one per request
+                Claims claims = jwtUtil.verify(jwt).orElse(null);
+                String username = claims != null ? claims.getSubject() : null;
+                Long userId = claims != null ? claims.get("user_id", Long.class) : null;
+                List<String> roles = claims != null ? roles(claims) : null;
 
-                if (jwtUtil.validateToken(jwt, userDetails)) {
-                    // --- THIS IS THE KEY CHANGE ---
-                    // We no longer extract a single role from the JWT.
-                    // Instead, we use the authorities already loaded in the UserDetails object.
+                // The authorities come from the token; the account check is cached, so there is no
+                // user load per request
+                if (username != null && userId != null && roles != null && accountStatuses.allows(userId, username, roles)) {
                     UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities()); // Use the authorities from UserDetails
+                            username, null, roles.stream().map(SimpleGrantedAuthority::new).toList());
 
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -55,6 +58,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // The role names JwtUtil.generateToken put in the token, or null if the claim is not a list
+    private static List<String> roles(Claims claims) {
+        return claims.get("roles") instanceof List<?> roles
+                ? roles.stream().map(String::valueOf).toList()
+                : null;
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
         if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
@@ -2,6 +2,8 @@ package com.nearchrist.backend.security;
 
 import com.nearchrist.backend.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,53 +12,109 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
+/**
+ * Issues and verifies the HMAC-signed tokens of the admin API.
+ * <p>
+ * The key and parser are built once. A verified token's claims are kept, keyed by a hash of the
+ * token, until it expires, so an admin session pays for one signature check and one JSON parse
+ * rather than one per request.
+ */
 @Component
 public class JwtUtil {
-
-    @Value("${jwt.secret}")
-    private String secret;
-
-    @Value("${jwt.expiration}")
-    private long expiration;
-
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
-    }
-
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    // --- REMOVED ---
-    // The extractRole method is no longer needed, as the JwtAuthenticationFilter
-    // now gets roles directly from the UserDetails object.
-
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    // Far beyond any token we issue; longer headers are not worth hashing or parsing
+    private static final int MAX_TOKEN_LENGTH = 4096;
+
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final long expiration;
+    private final Map<String, Claims> verified;
+
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration}") long expiration,
+                   @Value("${jwt.verified-cache.max-entries:1024}") int maxCachedTokens) {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.expiration = expiration;
+        // Forged tokens fail the signature check and are never cached, so only real sessions fill this;
+        // beyond the limit the least recently used session is verified again on its next request
+        this.verified = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Claims> eldest) {
+                return size() > maxCachedTokens;
+            }
+        });
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    /**
+     * The claims of a token we signed that has not expired yet, or empty for anything else.
+     */
+    public Optional<Claims> verify(String token) {
+        if (!isCompactJws(token)) {
+            return Optional.empty();
+        }
+        String key = hash(token);
+        Claims claims = verified.get(key);
+        if (claims == null) {
+            try {
+                claims = parser.parseSignedClaims(token).getPayload();
+            } catch (JwtException | IllegalArgumentException e) {
+                return Optional.empty();
+            }
+            if (claims.getExpiration() == null) {
+                // We never issue these; without an expiry there is no bound on trusting the token
+                return Optional.empty();
+            }
+            verified.put(key, claims);
+        }
+        if (!claims.getExpiration().after(new Date())) {
+            verified.remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    // Three non-empty base64url segments, checked before any hashing or crypto
+    private static boolean isCompactJws(String token) {
+        if (token == null || token.isEmpty() || token.length() > MAX_TOKEN_LENGTH) {
+            return false;
+        }
+        int dots = 0;
+        char previous = '.';
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                if (previous == '.' || ++dots > 2) {
+                    return false;
+                }
+            } else if (!(c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '-' || c == '_')) {
+                return false;
+            }
+            previous = c;
+        }
+        return dots == 2 && previous != '.';
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    // The cache holds digests rather than the bearer tokens themselves
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 
     // --- UPDATED to generate token from UserDetails ---
@@ -84,12 +142,7 @@ public class JwtUtil {
                 .issuer("http://localhost") // Consider making this configurable
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
-
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-    }
 }
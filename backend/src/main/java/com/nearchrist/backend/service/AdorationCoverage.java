@@ -0,0 +1,156 @@
+package com.nearchrist.backend.service;
+
+import com.nearchrist.backend.dto.AdorationDto;
+import com.nearchrist.backend.dto.CoverageDto;
+import com.nearchrist.backend.dto.CoverageGapDto;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.nearchrist.backend.service.AdorationTimetable.MINUTES_PER_DAY;
+import static com.nearchrist.backend.service.AdorationTimetable.MINUTES_PER_WEEK;
+
+/**
+ * Weekly adoration coverage as minute-resolution bitmaps (10,080 bits, Monday 00:00 first, in
+ * each adoration's local time). Every adoration is compiled once into its own bitmap; parishes,
+ * dioceses, states and the whole directory are unions of those. A rebuild recompiles only the
+ * adorations whose data changed and reuses the other bitmaps from the previous coverage.
+ * Bitmaps are never modified after construction.
+ */
+final class AdorationCoverage {
+    private final Map<Long, AdorationDto> compiledFrom;
+    private final Map<Long, BitSet> byAdoration;
+    private final Map<Long, BitSet> byParish = new HashMap<>();
+    private final Map<Long, BitSet> byDiocese = new HashMap<>();
+    private final Map<Long, BitSet> byState = new HashMap<>();
+    private final BitSet all = new BitSet(MINUTES_PER_WEEK);
+
+    AdorationCoverage(List<AdorationDto> adorations, AdorationCoverage previous) {
+        Map<Long, AdorationDto> sources = new HashMap<>();
+        Map<Long, BitSet> bitmaps = new HashMap<>();
+        for (AdorationDto adoration : adorations) {
+            Long id = adoration.adorationId();
+            BitSet bits = previous != null && adoration.equals(previous.compiledFrom.get(id))
+                    ? previous.byAdoration.get(id)
+                    : compile(adoration);
+            sources.put(id, adoration);
+            bitmaps.put(id, bits);
+            byParish.computeIfAbsent(adoration.parishId(), key -> new BitSet(MINUTES_PER_WEEK)).or(bits);
+            byDiocese.computeIfAbsent(adoration.dioceseId(), key -> new BitSet(MINUTES_PER_WEEK)).or(bits);
+            byState.computeIfAbsent(adoration.stateId(), key -> new BitSet(MINUTES_PER_WEEK)).or(bits);
+            all.or(bits);
+        }
+        this.compiledFrom = sources;
+        this.byAdoration = bitmaps;
+    }
+
+    /**
+     * Coverage of one parish, diocese or state (the narrowest id given), or of the whole directory.
+     */
+    CoverageDto of(Long stateId, Long dioceseId, Long parishId) {
+        BitSet bits;
+        if (parishId != null) {
+            bits = byParish.get(parishId);
+        } else if (dioceseId != null) {
+            bits = byDiocese.get(dioceseId);
+        } else if (stateId != null) {
+            bits = byState.get(stateId);
+        } else {
+            bits = all;
+        }
+        return summarize(bits == null ? new BitSet() : bits);
+    }
+
+    /**
+     * Coverage of an arbitrary set of adorations, for filter combinations with no prebuilt union.
+     */
+    CoverageDto of(Collection<AdorationDto> adorations) {
+        BitSet union = new BitSet(MINUTES_PER_WEEK);
+        for (AdorationDto adoration : adorations) {
+            BitSet bits = byAdoration.get(adoration.adorationId());
+            if (bits != null) {
+                union.or(bits);
+            }
+        }
+        return summarize(union);
+    }
+
+    private static BitSet compile(AdorationDto adoration) {
+        BitSet bits = new BitSet(MINUTES_PER_WEEK);
+        if (AdorationTimetable.isPerpetual(adoration)) {
+            bits.set(0, MINUTES_PER_WEEK);
+            return bits;
+        }
+        for (int[] occurrence : AdorationTimetable.weeklyOccurrences(adoration)) {
+            bits.set(occurrence[0], Math.min(occurrence[1], MINUTES_PER_WEEK));
+            if (occurrence[1] > MINUTES_PER_WEEK) {
+                // Sunday night into Monday morning wraps to the start of the week
+                bits.set(0, occurrence[1] - MINUTES_PER_WEEK);
+            }
+        }
+        return bits;
+    }
+
+    private static CoverageDto summarize(BitSet bits) {
+        int covered = bits.cardinality();
+        double percent = Math.round(covered * 10000.0 / MINUTES_PER_WEEK) / 100.0;
+
+        int[][] heatmap = new int[7][24];
+        for (int hour = 0; hour < 7 * 24; hour++) {
+            heatmap[hour / 24][hour % 24] = bits.get(hour * 60, hour * 60 + 60).cardinality();
+        }
+
+        List<CoverageGapDto> gaps = new ArrayList<>();
+        if (covered == 0) {
+            gaps.add(gap(0, MINUTES_PER_WEEK));
+        } else if (covered < MINUTES_PER_WEEK) {
+            // Start the scan where a covered stretch begins, so a gap across Sunday midnight is found whole
+            int origin = nextSet(bits, bits.nextClearBit(0));
+            int minute = origin;
+            do {
+                int gapStart = nextClear(bits, minute);
+                int gapEnd = nextSet(bits, gapStart);
+                int length = Math.floorMod(gapEnd - gapStart, MINUTES_PER_WEEK);
+                gaps.add(gap(gapStart, length));
+                minute = gapEnd;
+            } while (minute != origin);
+            gaps.sort(Comparator.comparingInt(CoverageGapDto::minutes).reversed()
+                    .thenComparing(CoverageGapDto::startDay)
+                    .thenComparing(CoverageGapDto::start));
+        }
+        return new CoverageDto(covered, percent, gaps, heatmap);
+    }
+
+    // First uncovered minute at or after {@code from}, wrapping round the week (there is one, as not all are covered)
+    private static int nextClear(BitSet bits, int from) {
+        int clear = bits.nextClearBit(from);
+        return clear < MINUTES_PER_WEEK ? clear : bits.nextClearBit(0);
+    }
+
+    // First covered minute after {@code from}, wrapping round the week
+    private static int nextSet(BitSet bits, int from) {
+        int set = bits.nextSetBit(from);
+        return set >= 0 ? set : bits.nextSetBit(0);
+    }
+
+    private static CoverageGapDto gap(int start, int minutes) {
+        int end = (start + minutes) % MINUTES_PER_WEEK;
+        return new CoverageGapDto(dayOf(start), timeOf(start), dayOf(end), timeOf(end), minutes);
+    }
+
+    private static DayOfWeek dayOf(int minuteOfWeek) {
+        return DayOfWeek.of(minuteOfWeek / MINUTES_PER_DAY + 1);
+    }
+
+    private static LocalTime timeOf(int minuteOfWeek) {
+        int minuteOfDay = minuteOfWeek % MINUTES_PER_DAY;
+        return LocalTime.of(minuteOfDay / 60, minuteOfDay % 60);
+    }
+}
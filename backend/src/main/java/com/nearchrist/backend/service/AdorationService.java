@@ -1,95 +1,251 @@
 package com.nearchrist.backend.service;
 
 import com.nearchrist.backend.dto.AdorationDto;
+import com.nearchrist.backend.dto.AdorationNowDto;
+import com.nearchrist.backend.dto.AdorationOccurrenceDto;
 import com.nearchrist.backend.dto.AdorationUpsertDto;
+import com.nearchrist.backend.dto.BatchRequestDto;
+import com.nearchrist.backend.dto.BatchResultDto;
+import com.nearchrist.backend.dto.CoverageDto;
+import com.nearchrist.backend.dto.KeysetCursor;
+import com.nearchrist.backend.dto.KeysetPage;
 import com.nearchrist.backend.entity.Adoration;
 import com.nearchrist.backend.mapper.AdorationMapper;
 import com.nearchrist.backend.repository.AdorationRepository;
 import com.nearchrist.backend.repository.DioceseRepository;
+import com.nearchrist.backend.repository.DirectoryReferences;
 import com.nearchrist.backend.repository.ParishRepository;
 import com.nearchrist.backend.repository.StateRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 @Service
 public class AdorationService {
+    private static final int MAX_WITHIN_MINUTES = AdorationTimetable.MINUTES_PER_DAY;
+    private static final int MAX_CACHED_WINDOWS = 1024;
+    private static final int MAX_UPCOMING = 100;
+
     private final AdorationRepository repository;
     private final DioceseRepository dioceseRepository;
     private final ParishRepository parishRepository;
     private final StateRepository stateRepository;
     private final AdorationMapper mapper;
+    private final DirectoryReadModel readModel;
+    private final ApplicationEventPublisher events;
+    // Least recently used first, so rare filter combinations evict each other rather than the busy ones
+    private final Map<String, CachedWindow> nowCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedWindow> eldest) {
+            return size() > MAX_CACHED_WINDOWS;
+        }
+    });
 
-    public AdorationService(AdorationRepository repository, DioceseRepository dioceseRepository, ParishRepository parishRepository, StateRepository stateRepository, AdorationMapper mapper) {
+    public AdorationService(AdorationRepository repository, DioceseRepository dioceseRepository, ParishRepository parishRepository, StateRepository stateRepository, AdorationMapper mapper,
+                            DirectoryReadModel readModel, ApplicationEventPublisher events) {
         this.repository = repository;
         this.dioceseRepository = dioceseRepository;
         this.parishRepository = parishRepository;
         this.stateRepository = stateRepository;
         this.mapper = mapper;
+        this.readModel = readModel;
+        this.events = events;
+    }
+
+    private record CachedWindow(long version, AdorationNowDto result) {}
+
+    /**
+     * ETag of every adoration read served right now; read it before building the response body.
+     */
+    public String currentETag() {
+        return readModel.current().etag(DirectoryAggregate.ADORATION);
     }
 
-    @Transactional(readOnly = true)
     public List<AdorationDto> getAllAdorations() {
-        return mapper.toDtoList(repository.findAll());
+        return readModel.current().adorations(null, null, null);
+    }
+
+    public KeysetPage<AdorationDto> getAdorations(Long stateId, Long dioceseId, Long parishId, String sort, String after, Integer limit) {
+        KeysetPage.checkLimit(limit);
+        KeysetCursor cursor = KeysetCursor.parse(sort, after, KeysetCursor.SORT_ID);
+        List<AdorationDto> rows = readModel.current().adorations(stateId, dioceseId, parishId);
+        return KeysetPage.slice(rows, limit, dto -> cursor.isBefore("", dto.adorationId()),
+                dto -> new KeysetCursor(sort, "", dto.adorationId()));
     }
 
-    @Transactional(readOnly = true)
     public Optional<AdorationDto> getAdorationById(Long id) {
-        return repository.findById(id).map(mapper::toDto);
+        return readModel.current().adoration(id);
     }
 
-    @Transactional
-    public AdorationDto createAdoration(AdorationUpsertDto dto) {
-        if (dto.dioceseId() == null || dto.parishId() == null || dto.stateId() == null || dto.adorationType() == null) {
-            throw new IllegalArgumentException("State ID, Diocese ID, Parish ID, and Adoration Type are required");
+    /**
+     * The next {@code limit} scheduled sessions, starting now or later, of the adorations matching the
+     * filters, in start order across all their states' time zones.
+     */
+    public List<AdorationOccurrenceDto> getUpcoming(Long stateId, Long dioceseId, Long parishId, int limit) {
+        if (limit < 1 || limit > MAX_UPCOMING) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_UPCOMING);
         }
-        if (!dioceseRepository.existsById(dto.dioceseId())) {
-            throw new IllegalArgumentException("Diocese with ID " + dto.dioceseId() + " does not exist");
-        }
-        if (!parishRepository.existsById(dto.parishId())) {
-            throw new IllegalArgumentException("Parish with ID " + dto.parishId() + " does not exist");
-        }
-        if (!stateRepository.existsById(dto.stateId())) {
-            throw new IllegalArgumentException("State with ID " + dto.stateId() + " does not exist");
-        }
-        Adoration entity = mapper.toEntity(dto);
-        return mapper.toDto(repository.save(entity));
+        DirectorySnapshot snapshot = readModel.current();
+        return snapshot.adorationTimetable().upcoming(snapshot.adorations(stateId, dioceseId, parishId), Instant.now(), limit);
     }
 
-    @Transactional
-    public Optional<AdorationDto> updateAdoration(Long id, AdorationUpsertDto dto) {
-        if (dto.dioceseId() == null || dto.parishId() == null || dto.stateId() == null || dto.adorationType() == null) {
-            throw new IllegalArgumentException("State ID, Diocese ID, Parish ID, and Adoration Type are required");
+    /**
+     * Minutes of the week, in local time, with at least one adoration scheduled among those matching
+     * the filters: the total, the uncovered stretches longest first, and a day-by-hour heatmap.
+     */
+    public CoverageDto getCoverage(Long stateId, Long dioceseId, Long parishId) {
+        DirectorySnapshot snapshot = readModel.current();
+        int filters = (stateId != null ? 1 : 0) + (dioceseId != null ? 1 : 0) + (parishId != null ? 1 : 0);
+        if (filters <= 1) {
+            return snapshot.adorationCoverage().of(stateId, dioceseId, parishId);
         }
-        if (!dioceseRepository.existsById(dto.dioceseId())) {
-            throw new IllegalArgumentException("Diocese with ID " + dto.dioceseId() + " does not exist");
+        // Combined filters have no prebuilt union, e.g. the part of a cross-border diocese in one state
+        return snapshot.adorationCoverage().of(snapshot.adorations(stateId, dioceseId, parishId));
+    }
+
+    /**
+     * Adorations open right now and those starting within the next {@code withinMinutes}, each judged
+     * by the local time of its own state. A result is reused until the next start or end could change it.
+     */
+    public AdorationNowDto getHappeningNow(Long stateId, Long dioceseId, Long parishId, int withinMinutes) {
+        if (withinMinutes < 0 || withinMinutes > MAX_WITHIN_MINUTES) {
+            throw new IllegalArgumentException("within must be between 0 and " + MAX_WITHIN_MINUTES + " minutes");
         }
-        if (!parishRepository.existsById(dto.parishId())) {
-            throw new IllegalArgumentException("Parish with ID " + dto.parishId() + " does not exist");
+        DirectorySnapshot snapshot = readModel.current();
+        Instant now = Instant.now();
+        String key = stateId + "/" + dioceseId + "/" + parishId + "/" + withinMinutes;
+        CachedWindow cached = nowCache.get(key);
+        if (cached != null && cached.version() == snapshot.version() && now.isBefore(cached.result().validUntil())) {
+            return cached.result();
         }
-        if (!stateRepository.existsById(dto.stateId())) {
-            throw new IllegalArgumentException("State with ID " + dto.stateId() + " does not exist");
+
+        AdorationTimetable timetable = snapshot.adorationTimetable();
+        List<AdorationDto> open = new ArrayList<>();
+        List<AdorationTimetable.Upcoming> upcoming = new ArrayList<>();
+        Instant validUntil = now.truncatedTo(ChronoUnit.HOURS).plus(1, ChronoUnit.HOURS);
+        for (Long id : stateId != null ? List.of(stateId) : timetable.stateIds()) {
+            AdorationTimetable.Window window = timetable.window(id, now, withinMinutes);
+            if (window == null) {
+                continue;
+            }
+            open.addAll(window.open());
+            upcoming.addAll(window.upcoming());
+            if (window.validUntil().isBefore(validUntil)) {
+                validUntil = window.validUntil();
+            }
         }
+        Predicate<AdorationDto> matches = a -> (dioceseId == null || dioceseId.equals(a.dioceseId()))
+                && (parishId == null || parishId.equals(a.parishId()));
+        AdorationNowDto result = new AdorationNowDto(
+                open.stream().filter(matches).sorted(Comparator.comparing(AdorationDto::adorationId)).toList(),
+                upcoming.stream()
+                        .filter(u -> matches.test(u.adoration()))
+                        .sorted(Comparator.comparingInt(AdorationTimetable.Upcoming::minutesAway)
+                                .thenComparing(u -> u.adoration().adorationId()))
+                        .map(AdorationTimetable.Upcoming::adoration)
+                        .toList(),
+                validUntil);
+
+        nowCache.put(key, new CachedWindow(snapshot.version(), result));
+        return result;
+    }
+
+    @Transactional
+    public AdorationDto createAdoration(AdorationUpsertDto dto) {
+        DirectoryReferences references = checkReferences(dto, null);
+        Adoration entity = new Adoration();
+        write(entity, dto, references);
+        DirectoryReferenceChecks.flush(repository, "Adoration", dto.stateId(), dto.dioceseId(), dto.parishId());
+        events.publishEvent(new DirectoryChangedEvent(DirectoryAggregate.ADORATION));
+        return toDto(entity, dto, references);
+    }
+
+    /**
+     * @param expectedVersion the version the client read, from If-Match or the body; null to update
+     *                        whatever the current version is
+     */
+    @Transactional
+    public Optional<AdorationDto> updateAdoration(Long id, AdorationUpsertDto dto, Long expectedVersion) {
+        DirectoryReferences references = checkReferences(dto, null);
         return repository.findById(id)
                 .map(entity -> {
-                    Adoration updated = mapper.toEntity(dto);
-                    updated.setAdorationId(id);
-                    return mapper.toDto(repository.save(updated));
+                    DirectoryVersions.check("Adoration", id, entity.getAdorationVersion(), expectedVersion);
+                    write(entity, dto, references);
+                    DirectoryReferenceChecks.flush(repository, "Adoration", dto.stateId(), dto.dioceseId(), dto.parishId());
+                    events.publishEvent(new DirectoryChangedEvent(DirectoryAggregate.ADORATION));
+                    return toDto(entity, dto, references);
                 });
     }
 
     @Transactional
     public boolean deleteAdoration(Long id) {
-        if (!repository.existsById(id)) {
+        Optional<Adoration> entity = repository.findById(id);
+        if (entity.isEmpty()) {
             return false;
         }
         try {
-            repository.deleteById(id);
+            repository.delete(entity.get());
+            repository.flush();
+            events.publishEvent(new DirectoryChangedEvent(DirectoryAggregate.ADORATION));
             return true;
         } catch (org.springframework.dao.DataIntegrityViolationException e) {
             throw new IllegalStateException("Cannot delete Adoration because it is referenced by other records");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates, updates and deletes adorations in one transaction, e.g. a parish's whole schedule;
+     * nothing is written unless every item is valid.
+     */
+    @Transactional
+    public BatchResultDto<AdorationDto> applyBatch(BatchRequestDto<AdorationUpsertDto> batch) {
+        Map<List<Long>, DirectoryReferences> checked = new HashMap<>();
+        BatchResultDto<AdorationDto> result = DirectoryBatches.apply(batch, repository, "Adoration",
+                DirectoryBatches.writer(Adoration::new, Adoration::getAdorationId, Adoration::getAdorationVersion, AdorationUpsertDto::adorationVersion,
+                        dto -> checkReferences(dto, checked), this::write, this::toDto));
+        if (result.applied() && !result.items().isEmpty()) {
+            events.publishEvent(new DirectoryChangedEvent(DirectoryAggregate.ADORATION));
+        }
+        return result;
+    }
+
+    // checked: references already read in this transaction, or null to always query
+    private DirectoryReferences checkReferences(AdorationUpsertDto dto, Map<List<Long>, DirectoryReferences> checked) {
+        if (dto.dioceseId() == null || dto.parishId() == null || dto.stateId() == null || dto.adorationType() == null) {
+            throw new IllegalArgumentException("State ID, Diocese ID, Parish ID, and Adoration Type are required");
+        }
+        return checked == null
+                ? DirectoryReferenceChecks.check(parishRepository, dto.stateId(), dto.dioceseId(), dto.parishId())
+                : DirectoryReferenceChecks.check(parishRepository, checked, dto.stateId(), dto.dioceseId(), dto.parishId());
+    }
+
+    // Inserts or updates in place without flushing; the references are proxies, so nothing is read
+    private void write(Adoration entity, AdorationUpsertDto dto, DirectoryReferences references) {
+        mapper.updateEntity(dto, entity);
+        entity.setState(stateRepository.getReferenceById(dto.stateId()));
+        entity.setDiocese(dioceseRepository.getReferenceById(dto.dioceseId()));
+        entity.setParish(parishRepository.getReferenceById(dto.parishId()));
+        repository.save(entity);
+    }
+
+    // After the flush, so the id and version are those written; the names come from the reference check
+    private AdorationDto toDto(Adoration entity, AdorationUpsertDto dto, DirectoryReferences references) {
+        return new AdorationDto(entity.getAdorationId(), dto.stateId(), references.getStateAbbreviation(),
+                dto.dioceseId(), references.getDioceseName(), dto.parishId(), references.getParishName(),
+                entity.getAdorationType(), entity.getAdorationLocation(), entity.getAdorationLocationType(),
+                entity.getAdorationDay(), entity.getAdorationStart(), entity.getAdorationEnd(),
+                entity.getAdorationVersion());
+    }
+}
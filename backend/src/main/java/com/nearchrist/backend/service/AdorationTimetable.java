@@ -0,0 +1,363 @@
+package com.nearchrist.backend.service;
+
+import com.nearchrist.backend.dto.AdorationDto;
+import com.nearchrist.backend.dto.AdorationOccurrenceDto;
+import com.nearchrist.backend.dto.StateDto;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Interval index over the weekly adoration schedule of one {@link DirectorySnapshot}. Per state,
+ * every adoration is laid out on a week of minutes in that state's time zone, and the week is cut
+ * at each start and end, so the adorations open at a given instant are one binary search away.
+ * Perpetual adorations are open in every segment; adorations whose day text names no weekday, or
+ * which have no times, cannot be placed and are left out.
+ */
+final class AdorationTimetable {
+    static final int MINUTES_PER_DAY = 24 * 60;
+    static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+    private static final String DAY = "(monday|mon|tuesday|tues|tue|wednesday|wed|thursday|thurs|thur|thu|friday|fri|saturday|sat|sunday|sun)s?";
+    private static final Pattern DAY_NAME = Pattern.compile("\\b" + DAY + "\\b\\.?");
+    private static final Pattern DAY_RANGE = Pattern.compile("\\b" + DAY + "\\.?\\s*(?:-|\u2013|to|until|through|thru)\\s*" + DAY + "\\b");
+
+    private final Map<Long, StateTimetable> byState;
+    private final Map<Long, Recurrence> recurrences;
+
+    AdorationTimetable(List<StateDto> states, List<AdorationDto> adorations) {
+        Map<Long, List<AdorationDto>> adorationsByState = new HashMap<>();
+        for (AdorationDto adoration : adorations) {
+            adorationsByState.computeIfAbsent(adoration.stateId(), id -> new ArrayList<>()).add(adoration);
+        }
+        Map<Long, StateTimetable> timetables = new HashMap<>();
+        Map<Long, Recurrence> weekly = new HashMap<>();
+        for (StateDto state : states) {
+            ZoneId zone = zoneOf(state);
+            List<AdorationDto> inState = adorationsByState.getOrDefault(state.stateId(), List.of());
+            timetables.put(state.stateId(), new StateTimetable(zone, inState));
+            for (AdorationDto adoration : inState) {
+                List<int[]> occurrences = isPerpetual(adoration) ? List.of() : weeklyOccurrences(adoration);
+                if (!occurrences.isEmpty()) {
+                    int[] starts = occurrences.stream().mapToInt(occurrence -> occurrence[0]).sorted().toArray();
+                    int length = occurrences.get(0)[1] - occurrences.get(0)[0];
+                    weekly.put(adoration.adorationId(), new Recurrence(adoration, zone, starts, length));
+                }
+            }
+        }
+        this.byState = Map.copyOf(timetables);
+        this.recurrences = Map.copyOf(weekly);
+    }
+
+    /**
+     * What one state has open at {@code now}, sorted by id, and what starts within the following
+     * {@code withinMinutes}, sorted by start. Both hold until {@code validUntil}.
+     */
+    record Window(List<AdorationDto> open, List<Upcoming> upcoming, Instant validUntil) {}
+
+    record Upcoming(int minutesAway, AdorationDto adoration) {}
+
+    Set<Long> stateIds() {
+        return byState.keySet();
+    }
+
+    Window window(Long stateId, Instant now, int withinMinutes) {
+        StateTimetable timetable = byState.get(stateId);
+        return timetable == null ? null : timetable.window(now, withinMinutes);
+    }
+
+    /**
+     * The next {@code limit} sessions of the given adorations starting at or after {@code from},
+     * in time order. Each adoration's weekly schedule is expanded lazily, one session at a time, and
+     * the sequences are merged through a priority queue, so the work grows with the number of
+     * adorations and sessions returned, not with how far ahead they lie. Perpetual adorations have
+     * no sessions and are skipped, like adorations that cannot be placed.
+     */
+    List<AdorationOccurrenceDto> upcoming(List<AdorationDto> adorations, Instant from, int limit) {
+        List<Cursor> cursors = new ArrayList<>(adorations.size());
+        Map<ZoneId, ZonedDateTime> localFrom = new HashMap<>();
+        for (AdorationDto adoration : adorations) {
+            Recurrence recurrence = recurrences.get(adoration.adorationId());
+            if (recurrence != null) {
+                cursors.add(new Cursor(recurrence, localFrom.computeIfAbsent(recurrence.zone(), from::atZone)));
+            }
+        }
+        // Heapified in one pass rather than inserted one by one
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(cursors);
+        List<AdorationOccurrenceDto> timeline = new ArrayList<>(Math.min(limit, 64));
+        while (timeline.size() < limit && !queue.isEmpty()) {
+            Cursor cursor = queue.poll();
+            timeline.add(cursor.occurrence());
+            cursor.advance();
+            queue.add(cursor);
+        }
+        return timeline;
+    }
+
+    /**
+     * A scheduled adoration's week: sorted start minutes, each session's length and the zone they
+     * are read in.
+     */
+    private record Recurrence(AdorationDto adoration, ZoneId zone, int[] starts, int minutes) {}
+
+    // Walks one adoration's sessions forward from a given local time; ordered by its next start, then adoration id
+    private static final class Cursor implements Comparable<Cursor> {
+        private final Recurrence recurrence;
+        private LocalDate monday;
+        private int index;
+        private ZonedDateTime start;
+        private long startSecond;
+
+        Cursor(Recurrence recurrence, ZonedDateTime local) {
+            this.recurrence = recurrence;
+            this.monday = local.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            // A session that began earlier in the current minute has already started
+            int minute = minuteOfWeek(local) + (local.truncatedTo(ChronoUnit.MINUTES).equals(local) ? 0 : 1);
+            int[] starts = recurrence.starts();
+            int next = 0;
+            while (next < starts.length && starts[next] < minute) {
+                next++;
+            }
+            this.index = next - 1;
+            advance();
+        }
+
+        void advance() {
+            index++;
+            if (index == recurrence.starts().length) {
+                index = 0;
+                monday = monday.plusWeeks(1);
+            }
+            // A start inside a daylight-saving gap moves to the first valid time after it
+            start = monday.atStartOfDay().plusMinutes(recurrence.starts()[index]).atZone(recurrence.zone());
+            startSecond = start.toEpochSecond();
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            int order = Long.compare(startSecond, other.startSecond);
+            return order != 0 ? order : recurrence.adoration().adorationId().compareTo(other.recurrence.adoration().adorationId());
+        }
+
+        AdorationOccurrenceDto occurrence() {
+            ZonedDateTime end = start.toLocalDateTime().plusMinutes(recurrence.minutes()).atZone(recurrence.zone());
+            return new AdorationOccurrenceDto(start.toOffsetDateTime(), end.toOffsetDateTime(), recurrence.adoration());
+        }
+    }
+
+    /**
+     * Normalizes free-text days ("Monday", "Mon-Fri", "Tuesdays & Thursdays", "Weekdays", "Daily")
+     * to the weekdays they name. Unrecognized text yields an empty set.
+     */
+    static Set<DayOfWeek> parseDays(String text) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        if (text == null || text.isBlank()) {
+            return days;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        if (lower.contains("daily") || lower.contains("every day") || lower.contains("everyday") || lower.contains("7 days")) {
+            return EnumSet.allOf(DayOfWeek.class);
+        }
+        if (lower.contains("weekday")) {
+            days.addAll(EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY));
+        }
+        if (lower.contains("weekend")) {
+            days.addAll(EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY));
+        }
+        Matcher range = DAY_RANGE.matcher(lower);
+        while (range.find()) {
+            // Ranges may wrap past Sunday, e.g. "Fri-Mon"
+            DayOfWeek day = dayOf(range.group(1));
+            DayOfWeek last = dayOf(range.group(2));
+            days.add(day);
+            while (day != last) {
+                day = day.plus(1);
+                days.add(day);
+            }
+        }
+        Matcher name = DAY_NAME.matcher(lower);
+        while (name.find()) {
+            days.add(dayOf(name.group(1)));
+        }
+        return days;
+    }
+
+    /**
+     * The weekly occurrences of a scheduled (not perpetual) adoration as {start, end} minutes of
+     * the week, end exclusive. An occurrence that runs past Sunday midnight has an end beyond
+     * {@link #MINUTES_PER_WEEK}. Adorations without recognizable days or times have none.
+     */
+    static List<int[]> weeklyOccurrences(AdorationDto adoration) {
+        Set<DayOfWeek> days = parseDays(adoration.adorationDay());
+        if (days.isEmpty() || adoration.adorationStart() == null || adoration.adorationEnd() == null) {
+            return List.of();
+        }
+        int from = minuteOfDay(adoration.adorationStart());
+        int to = minuteOfDay(adoration.adorationEnd());
+        // An end at or before the start runs past midnight into the next day
+        int length = to > from ? to - from : to - from + MINUTES_PER_DAY;
+        List<int[]> occurrences = new ArrayList<>(days.size());
+        for (DayOfWeek day : days) {
+            int start = (day.getValue() - 1) * MINUTES_PER_DAY + from;
+            occurrences.add(new int[]{start, start + length});
+        }
+        return occurrences;
+    }
+
+    static boolean isPerpetual(AdorationDto adoration) {
+        return adoration.adorationType() != null && adoration.adorationType().trim().equalsIgnoreCase("Perpetual");
+    }
+
+    private static DayOfWeek dayOf(String name) {
+        return switch (name.substring(0, 3)) {
+            case "mon" -> DayOfWeek.MONDAY;
+            case "tue" -> DayOfWeek.TUESDAY;
+            case "wed" -> DayOfWeek.WEDNESDAY;
+            case "thu" -> DayOfWeek.THURSDAY;
+            case "fri" -> DayOfWeek.FRIDAY;
+            case "sat" -> DayOfWeek.SATURDAY;
+            default -> DayOfWeek.SUNDAY;
+        };
+    }
+
+    static ZoneId zoneOf(StateDto state) {
+        String zone = state.stateTimeZone();
+        return ZoneId.of(zone == null || zone.isBlank() ? StateService.DEFAULT_TIME_ZONE : zone);
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static int minuteOfWeek(ZonedDateTime local) {
+        return (local.getDayOfWeek().getValue() - 1) * MINUTES_PER_DAY + local.getHour() * 60 + local.getMinute();
+    }
+
+    private record Start(int minute, AdorationDto adoration) {}
+
+    private static final class StateTimetable {
+        private final ZoneId zone;
+        // Sorted minutes of the week starting at 0; segment i runs up to the next boundary (or the week's end)
+        private final int[] boundaries;
+        // Adorations open throughout each segment, sorted by id
+        private final List<List<AdorationDto>> open;
+        // Sorted minutes of the week at which a scheduled adoration begins, with the adoration at each
+        private final int[] starts;
+        private final List<AdorationDto> startingAt;
+
+        StateTimetable(ZoneId zone, List<AdorationDto> adorations) {
+            this.zone = zone;
+            List<AdorationDto> perpetual = new ArrayList<>();
+            List<int[]> intervals = new ArrayList<>();
+            List<AdorationDto> intervalOwners = new ArrayList<>();
+            List<Start> starts = new ArrayList<>();
+            TreeSet<Integer> cuts = new TreeSet<>(List.of(0));
+
+            for (AdorationDto adoration : adorations) {
+                if (isPerpetual(adoration)) {
+                    perpetual.add(adoration);
+                    continue;
+                }
+                for (int[] occurrence : weeklyOccurrences(adoration)) {
+                    int start = occurrence[0];
+                    int end = occurrence[1];
+                    starts.add(new Start(start, adoration));
+                    cuts.add(start);
+                    if (end <= MINUTES_PER_WEEK) {
+                        intervals.add(new int[]{start, end});
+                        intervalOwners.add(adoration);
+                        cuts.add(end % MINUTES_PER_WEEK);
+                    } else {
+                        // Sunday night into Monday morning wraps to the start of the week
+                        intervals.add(new int[]{start, MINUTES_PER_WEEK});
+                        intervals.add(new int[]{0, end - MINUTES_PER_WEEK});
+                        intervalOwners.add(adoration);
+                        intervalOwners.add(adoration);
+                        cuts.add(end - MINUTES_PER_WEEK);
+                    }
+                }
+            }
+
+            this.boundaries = cuts.stream().mapToInt(Integer::intValue).toArray();
+            List<List<AdorationDto>> segments = new ArrayList<>(boundaries.length);
+            for (int i = 0; i < boundaries.length; i++) {
+                segments.add(new ArrayList<>(perpetual));
+            }
+            for (int i = 0; i < intervals.size(); i++) {
+                int[] interval = intervals.get(i);
+                for (int segment = Arrays.binarySearch(boundaries, interval[0]);
+                     segment < boundaries.length && boundaries[segment] < interval[1]; segment++) {
+                    segments.get(segment).add(intervalOwners.get(i));
+                }
+            }
+            this.open = segments.stream()
+                    .map(segment -> segment.stream().distinct().sorted(Comparator.comparing(AdorationDto::adorationId)).toList())
+                    .toList();
+
+            starts.sort(Comparator.comparingInt(Start::minute).thenComparing(start -> start.adoration().adorationId()));
+            this.starts = starts.stream().mapToInt(Start::minute).toArray();
+            this.startingAt = starts.stream().map(Start::adoration).toList();
+        }
+
+        Window window(Instant now, int withinMinutes) {
+            ZonedDateTime local = now.atZone(zone).truncatedTo(ChronoUnit.MINUTES);
+            int minute = minuteOfWeek(local);
+            int found = Arrays.binarySearch(boundaries, minute);
+            int segment = found >= 0 ? found : -found - 2;
+            int nextBoundary = segment + 1 < boundaries.length ? boundaries[segment + 1] : MINUTES_PER_WEEK;
+            // Re-evaluate at least hourly, so a daylight-saving shift is picked up within the hour
+            int validFor = Math.min(nextBoundary - minute, 60 - local.getMinute());
+
+            List<Upcoming> upcoming = new ArrayList<>();
+            int first = upperBound(starts, minute);
+            for (int i = 0; i < starts.length; i++) {
+                int index = (first + i) % starts.length;
+                int away = Math.floorMod(starts[index] - minute, MINUTES_PER_WEEK);
+                if (away == 0) {
+                    // Only possible after wrapping all the way round; it is open now, not upcoming
+                    break;
+                }
+                if (away > withinMinutes) {
+                    // The window changes when its far edge reaches this start
+                    validFor = Math.min(validFor, away - withinMinutes);
+                    break;
+                }
+                upcoming.add(new Upcoming(away, startingAt.get(index)));
+            }
+            return new Window(open.get(segment), upcoming, local.plusMinutes(validFor).toInstant());
+        }
+
+        private static int upperBound(int[] sorted, int value) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sorted[mid] <= value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.nearchrist.backend.service;
+
+import com.nearchrist.backend.dto.AdorationDto;
+import com.nearchrist.backend.dto.ParishDto;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * iCalendar subscriptions to the adorations of a parish, diocese or state. Feeds are assembled from
+ * the read model and from a cache of rendered events, so neither polling nor a full feed touches
+ * the database, and an event is only rendered again once its adoration, parish or state changes.
+ */
+@Service
+public class CalendarService {
+    private final DirectoryReadModel readModel;
+    private final Map<Long, RenderedEvent> events = new ConcurrentHashMap<>();
+    private final Map<ZoneId, byte[]> timeZones = new ConcurrentHashMap<>();
+
+    public CalendarService(DirectoryReadModel readModel) {
+        this.readModel = readModel;
+    }
+
+    /**
+     * A feed ready to be written; {@code body} only reads the snapshot it was taken from.
+     */
+    public record CalendarFeed(String etag, Instant lastModified, Body body) {}
+
+    @FunctionalInterface
+    public interface Body {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    // The inputs an event was rendered from; it is reused while they are all unchanged
+    private record RenderedEvent(AdorationDto adoration, ParishDto parish, ZoneId zone, byte[] bytes) {}
+
+    public Optional<CalendarFeed> parishFeed(Long parishId) {
+        DirectorySnapshot snapshot = readModel.current();
+        return snapshot.parish(parishId)
+                .map(parish -> feed(snapshot, parish.parishName(), snapshot.adorations(null, null, parishId)));
+    }
+
+    public Optional<CalendarFeed> dioceseFeed(Long dioceseId) {
+        DirectorySnapshot snapshot = readModel.current();
+        return snapshot.diocese(dioceseId)
+                .map(diocese -> feed(snapshot, diocese.dioceseName(), snapshot.adorations(null, dioceseId, null)));
+    }
+
+    public Optional<CalendarFeed> stateFeed(Long stateId) {
+        DirectorySnapshot snapshot = readModel.current();
+        return snapshot.state(stateId)
+                .map(state -> feed(snapshot, state.stateName(), snapshot.adorations(stateId, null, null)));
+    }
+
+    private CalendarFeed feed(DirectorySnapshot snapshot, String name, List<AdorationDto> adorations) {
+        if (events.size() > snapshot.adorations(null, null, null).size()) {
+            // Deleted adorations leave their events behind
+            events.keySet().removeIf(id -> snapshot.adoration(id).isEmpty());
+        }
+        String etag = snapshot.etag(DirectoryAggregate.ADORATION);
+        // The JSON responses share the data version but not the bytes, so the tag must differ
+        String calendarETag = etag.substring(0, etag.length() - 1) + "-ics\"";
+        byte[] header = new ICalendarWriter()
+                .line("BEGIN", "VCALENDAR")
+                .line("VERSION", "2.0")
+                .line("PRODID", "-//Near Christ//Adoration Directory//EN")
+                .line("CALSCALE", "GREGORIAN")
+                .text("X-WR-CALNAME", "Adoration - " + name)
+                // A hint for clients that poll on their own schedule
+                .line("REFRESH-INTERVAL;VALUE=DURATION", "PT6H")
+                .line("X-PUBLISHED-TTL", "PT6H")
+                .toBytes();
+        byte[] footer = "END:VCALENDAR\r\n".getBytes(StandardCharsets.UTF_8);
+
+        Body body = out -> {
+            out.write(header);
+            Set<ZoneId> zones = new LinkedHashSet<>();
+            for (AdorationDto adoration : adorations) {
+                zones.add(zoneOf(snapshot, adoration));
+            }
+            for (ZoneId zone : zones) {
+                out.write(timeZones.computeIfAbsent(zone, ICalendarWriter::timeZone));
+            }
+            // Written one event at a time, so even a state-wide feed is never held in full
+            for (AdorationDto adoration : adorations) {
+                byte[] event = event(snapshot, adoration);
+                if (event != null) {
+                    out.write(event);
+                }
+            }
+            out.write(footer);
+        };
+        return new CalendarFeed(calendarETag, snapshot.lastModified(DirectoryAggregate.ADORATION), body);
+    }
+
+    private byte[] event(DirectorySnapshot snapshot, AdorationDto adoration) {
+        ParishDto parish = snapshot.parish(adoration.parishId()).orElse(null);
+        ZoneId zone = zoneOf(snapshot, adoration);
+        RenderedEvent cached = events.get(adoration.adorationId());
+        if (cached != null && cached.adoration().equals(adoration) && cached.zone().equals(zone)
+                && Objects.equals(cached.parish(), parish)) {
+            return cached.bytes();
+        }
+        byte[] bytes = render(adoration, parish, zone);
+        events.put(adoration.adorationId(), new RenderedEvent(adoration, parish, zone, bytes));
+        return bytes;
+    }
+
+    // Null for adorations whose days or times cannot be read; they have no place on a calendar
+    private static byte[] render(AdorationDto adoration, ParishDto parish, ZoneId zone) {
+        boolean perpetual = AdorationTimetable.isPerpetual(adoration);
+        Set<DayOfWeek> days = AdorationTimetable.parseDays(adoration.adorationDay());
+        if (!perpetual && (days.isEmpty() || adoration.adorationStart() == null || adoration.adorationEnd() == null)) {
+            return null;
+        }
+        Instant now = Instant.now();
+        // Recurrences start in the week the event is first published
+        LocalDate monday = LocalDate.ofInstant(now, zone).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        ICalendarWriter event = new ICalendarWriter()
+                .line("BEGIN", "VEVENT")
+                .line("UID", "adoration-" + adoration.adorationId() + "@near-christ")
+                .utc("DTSTAMP", now);
+        if (perpetual) {
+            event.date("DTSTART", monday)
+                    .date("DTEND", monday.plusDays(1))
+                    .line("RRULE", "FREQ=DAILY")
+                    .text("SUMMARY", "Perpetual adoration at " + adoration.parishName());
+        } else {
+            LocalDateTime start = LocalDateTime.of(monday.plusDays(days.iterator().next().getValue() - 1L),
+                    adoration.adorationStart().withSecond(0).withNano(0));
+            LocalDateTime end = start.with(adoration.adorationEnd().withSecond(0).withNano(0));
+            if (!end.isAfter(start)) {
+                // An end at or before the start runs past midnight into the next day
+                end = end.plusDays(1);
+            }
+            event.localTime("DTSTART", zone, start)
+                    .localTime("DTEND", zone, end)
+                    .line("RRULE", "FREQ=WEEKLY;BYDAY=" + ICalendarWriter.byDay(days))
+                    .text("SUMMARY", "Adoration at " + adoration.parishName());
+        }
+        event.text("LOCATION", join(", ", adoration.adorationLocation(), adoration.parishName(), address(parish)))
+                .text("DESCRIPTION", join("\n", adoration.adorationLocationType(),
+                        adoration.adorationDay() == null || perpetual ? null : "Days: " + adoration.adorationDay().trim()));
+        if (parish != null && parish.parishLatitude() != null && parish.parishLongitude() != null) {
+            event.line("GEO", parish.parishLatitude() + ";" + parish.parishLongitude());
+        }
+        return event.line("END", "VEVENT").toBytes();
+    }
+
+    private static ZoneId zoneOf(DirectorySnapshot snapshot, AdorationDto adoration) {
+        return snapshot.state(adoration.stateId())
+                .map(AdorationTimetable::zoneOf)
+                .orElseGet(() -> ZoneId.of(StateService.DEFAULT_TIME_ZONE));
+    }
+
+    private static String address(ParishDto parish) {
+        if (parish == null) {
+            return null;
+        }
+        return join(", ", join(" ", parish.parishStNumber(), parish.parishStName()),
+                join(" ", parish.parishSuburb(), parish.stateAbbreviation(), parish.parishPostcode()));
+    }
+
+    private static String join(String separator, String... parts) {
+        return Arrays.stream(parts)
+                .filter(part -> part != null && !part.isBlank())
+                .map(String::trim)
+                .collect(Collectors.joining(separator));
+    }
+}
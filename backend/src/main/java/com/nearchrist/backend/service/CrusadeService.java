@@ -1,17 +1,25 @@
 package com.nearchrist.backend.service;
 
+import com.nearchrist.backend.dto.BatchRequestDto;
+import com.nearchrist.backend.dto.BatchResultDto;
 import com.nearchrist.backend.dto.CrusadeDto;
 import com.nearchrist.backend.dto.CrusadeUpsertDto;
+import com.nearchrist.backend.dto.KeysetCursor;
+import com.nearchrist.backend.dto.KeysetPage;
 import com.nearchrist.backend.entity.Crusade;
 import com.nearchrist.backend.mapper.CrusadeMapper;
 import com.nearchrist.backend.repository.CrusadeRepository;
 import com.nearchrist.backend.repository.DioceseRepository;
+import com.nearchrist.backend.repository.DirectoryReferences;
 import com.nearchrist.backend.repository.ParishRepository;
 import com.nearchrist.backend.repository.StateRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -21,75 +29,128 @@ public class CrusadeService {
     private final ParishRepository parishRepository;
     private final StateRepository stateRepository;
     private final CrusadeMapper mapper;
+    private final DirectoryReadModel readModel;
+    private final ApplicationEventPublisher events;
 
-    public CrusadeService(CrusadeRepository repository, DioceseRepository dioceseRepository, ParishRepository parishRepository, StateRepository stateRepository, CrusadeMapper mapper) {
+    public CrusadeService(CrusadeRepository repository, DioceseRepository dioceseRepository, ParishRepository parishRepository, StateRepository stateRepository, CrusadeMapper mapper,
+                          DirectoryReadModel readModel, ApplicationEventPublisher events) {
         this.repository = repository;
         this.dioceseRepository = dioceseRepository;
         this.parishRepository = parishRepository;
         this.stateRepository = stateRepository;
         this.mapper = mapper;
+        this.readModel = readModel;
+        this.events = events;
+    }
+
+    /**
+     * ETag of every crusade read served right now; read it before building the response body.
+     */
+    public String currentETag() {
+        return readModel.current().etag(DirectoryAggregate.CRUSADE);
     }
 
-    @Transactional(readOnly = true)
     public List<CrusadeDto> getAllCrusades() {
-        return mapper.toDtoList(repository.findAll());
+        return readModel.current().crusades(null, null, null);
+    }
+
+    public KeysetPage<CrusadeDto> getCrusades(Long stateId, Long dioceseId, Long parishId, String sort, String after, Integer limit) {
+        KeysetPage.checkLimit(limit);
+        KeysetCursor cursor = KeysetCursor.parse(sort, after, KeysetCursor.SORT_ID);
+        List<CrusadeDto> rows = readModel.current().crusades(stateId, dioceseId, parishId);
+        return KeysetPage.slice(rows, limit, dto -> cursor.isBefore("", dto.crusadeId()),
+                dto -> new KeysetCursor(sort, "", dto.crusadeId()));
     }
 
-    @Transactional(readOnly = true)
     public Optional<CrusadeDto> getCrusadeById(Long id) {
-        return repository.findById(id).map(mapper::toDto);
+        return readModel.current().crusade(id);
     }
 
     @Transactional
     public CrusadeDto createCrusade(CrusadeUpsertDto dto) {
-        if (dto.dioceseId() == null || dto.parishId() == null || dto.stateId() == null) {
-            throw new IllegalArgumentException("State ID, Diocese ID, and Parish ID are required");
-        }
-        if (!dioceseRepository.existsById(dto.dioceseId())) {
-            throw new IllegalArgumentException("Diocese with ID " + dto.dioceseId() + " does not exist");
-        }
-        if (!parishRepository.existsById(dto.parishId())) {
-            throw new IllegalArgumentException("Parish with ID " + dto.parishId() + " does not exist");
-        }
-        if (!stateRepository.existsById(dto.stateId())) {
-            throw new IllegalArgumentException("State with ID " + dto.stateId() + " does not exist");
-        }
-        Crusade entity = mapper.toEntity(dto);
-        return mapper.toDto(repository.save(entity));
+        DirectoryReferences references = checkReferences(dto, null);
+        Crusade entity = new Crusade();
+        write(entity, dto, references);
+        DirectoryReferenceChecks.flush(repository, "Crusade", dto.stateId(), dto.dioceseId(), dto.parishId());
+        events.publishEvent(new DirectoryChangedEvent(DirectoryAggregate.CRUSADE));
+        return toDto(entity, dto, references);
     }
 
+    /**
+     * @param expectedVersion the version the client read, from If-Match or the body; null to update
+     *                        whatever the current version is
+     */
     @Transactional
-    public Optional<CrusadeDto> updateCrusade(Long id, CrusadeUpsertDto dto) {
-        if (dto.dioceseId() == null || dto.parishId() == null || dto.stateId() == null) {
-            throw new IllegalArgumentException("State ID, Diocese ID, and Parish ID are required");
-        }
-        if (!dioceseRepository.existsById(dto.dioceseId())) {
-            throw new IllegalArgumentException("Diocese with ID " + dto.dioceseId() + " does not exist");
-        }
-        if (!parishRepository.existsById(dto.parishId())) {
-            throw new IllegalArgumentException("Parish with ID " + dto.parishId() + " does not exist");
-        }
-        if (!stateRepository.existsById(dto.stateId())) {
-            throw new IllegalArgumentException("State with ID " + dto.stateId() + " does not exist");
-        }
+    public Optional<CrusadeDto> updateCrusade(Long id, CrusadeUpsertDto dto, Long expectedVersion) {
+        DirectoryReferences references = checkReferences(dto, null);
         return repository.findById(id)
                 .map(entity -> {
-                    Crusade updated = mapper.toEntity(dto);
-                    updated.setCrusadeId(id);
-                    return mapper.toDto(repository.save(updated));
+                    DirectoryVersions.check("Crusade", id, entity.getCrusadeVersion(), expectedVersion);
+                    write(entity, dto, references);
+                    DirectoryReferenceChecks.flush(repository, "Crusade", dto.stateId(), dto.dioceseId(), dto.parishId());
+                    events.publishEvent(new DirectoryChangedEvent(DirectoryAggregate.CRUSADE));
+                    return toDto(entity, dto, references);
                 });
     }
 
     @Transactional
     public boolean deleteCrusade(Long id) {
-        if (!repository.existsById(id)) {
+        Optional<Crusade> entity = repository.findById(id);
+        if (entity.isEmpty()) {
             return false;
         }
         try {
-            repository.deleteById(id);
+            repository.delete(entity.get());
+            repository.flush();
+            events.publishEvent(new DirectoryChangedEvent(DirectoryAggregate.CRUSADE));
             return true;
         } catch (org.springframework.dao.DataIntegrityViolationException e) {
             throw new IllegalStateException("Cannot delete Crusade because it is referenced by other records");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates, updates and deletes crusades in one transaction; nothing is written unless every
+     * item is valid.
+     */
+    @Transactional
+    public BatchResultDto<CrusadeDto> applyBatch(BatchRequestDto<CrusadeUpsertDto> batch) {
+        Map<List<Long>, DirectoryReferences> checked = new HashMap<>();
+        BatchResultDto<CrusadeDto> result = DirectoryBatches.apply(batch, repository, "Crusade",
+                DirectoryBatches.writer(Crusade::new, Crusade::getCrusadeId, Crusade::getCrusadeVersion, CrusadeUpsertDto::crusadeVersion,
+                        dto -> checkReferences(dto, checked), this::write, this::toDto));
+        if (result.applied() && !result.items().isEmpty()) {
+            events.publishEvent(new DirectoryChangedEvent(DirectoryAggregate.CRUSADE));
+        }
+        return result;
+    }
+
+    // checked: references already read in this transaction, or null to always query
+    private DirectoryReferences checkReferences(CrusadeUpsertDto dto, Map<List<Long>, DirectoryReferences> checked) {
+        if (dto.dioceseId() == null || dto.parishId() == null || dto.stateId() == null) {
+            throw new IllegalArgumentException("State ID, Diocese ID, and Parish ID are required");
+        }
+        return checked == null
+                ? DirectoryReferenceChecks.check(parishRepository, dto.stateId(), dto.dioceseId(), dto.parishId())
+                : DirectoryReferenceChecks.check(parishRepository, checked, dto.stateId(), dto.dioceseId(), dto.parishId());
+    }
+
+    // Inserts or updates in place without flushing; the references are proxies, so nothing is read
+    private void write(Crusade entity, CrusadeUpsertDto dto, DirectoryReferences references) {
+        mapper.updateEntity(dto, entity);
+        entity.setState(stateRepository.getReferenceById(dto.stateId()));
+        entity.setDiocese(dioceseRepository.getReferenceById(dto.dioceseId()));
+        entity.setParish(parishRepository.getReferenceById(dto.parishId()));
+        repository.save(entity);
+    }
+
+    // After the flush, so the id and version are those written; the names come from the reference check
+    private CrusadeDto toDto(Crusade entity, CrusadeUpsertDto dto, DirectoryReferences references) {
+        return new CrusadeDto(entity.getCrusadeId(), dto.stateId(), references.getStateAbbreviation(),
+                dto.dioceseId(), references.getDioceseName(), dto.parishId(), references.getParishName(),
+                entity.getConfessionStartTime(), entity.getConfessionEndTime(), entity.getMassStartTime(),
+                entity.getMassEndTime(), entity.getCrusadeStartTime(), entity.getCrusadeEndTime(),
+                entity.getContactName(), entity.getContactPhone(), entity.getContactEmail(), entity.getComments(),
+                entity.getCrusadeVersion());
+    }
+}
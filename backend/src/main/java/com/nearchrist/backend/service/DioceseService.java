@@ -1,16 +1,21 @@
 package com.nearchrist.backend.service;
 
 import com.nearchrist.backend.dto.DioceseDto;
+import com.nearchrist.backend.dto.DioceseStateAbbreviation;
 import com.nearchrist.backend.dto.DioceseUpsertDto;
+import com.nearchrist.backend.dto.KeysetCursor;
+import com.nearchrist.backend.dto.KeysetPage;
 import com.nearchrist.backend.entity.Diocese;
 import com.nearchrist.backend.exception.DioceseHasParishesException;
 import com.nearchrist.backend.mapper.DioceseMapper;
 import com.nearchrist.backend.repository.DioceseRepository;
 import com.nearchrist.backend.repository.ParishRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -19,21 +24,41 @@ public class DioceseService {
     private final DioceseRepository dioceseRepository;
     private final DioceseMapper dioceseMapper;
     private final ParishRepository parishRepository;
+    private final DirectoryReadModel readModel;
+    private final ApplicationEventPublisher events;
 
-    public DioceseService(DioceseRepository dioceseRepository, DioceseMapper dioceseMapper, ParishRepository parishRepository) {
+    public DioceseService(DioceseRepository dioceseRepository, DioceseMapper dioceseMapper, ParishRepository parishRepository,
+                          DirectoryReadModel readModel, ApplicationEventPublisher events) {
         this.dioceseRepository = dioceseRepository;
         this.dioceseMapper = dioceseMapper;
         this.parishRepository = parishRepository;
+        this.readModel = readModel;
+        this.events = events;
+    }
+
+    /**
+     * ETag of every diocese read served right now; read it before building the response body.
+     */
+    public String currentETag() {
+        return readModel.current().etag(DirectoryAggregate.DIOCESE);
     }
 
-    @Transactional(readOnly = true)
     public List<DioceseDto> getAllDioceses() {
-        return dioceseMapper.toDtoList(dioceseRepository.findAllWithParishes());
+        return readModel.current().dioceses();
+    }
+
+    public KeysetPage<DioceseDto> getDiocesePage(String sort, String after, Integer limit) {
+        KeysetPage.checkLimit(limit);
+        KeysetCursor cursor = KeysetCursor.parse(sort, after, KeysetCursor.SORT_ID, KeysetCursor.SORT_NAME);
+        boolean byName = KeysetCursor.SORT_NAME.equals(sort);
+        DirectorySnapshot snapshot = readModel.current();
+        return KeysetPage.slice(byName ? snapshot.diocesesByName() : snapshot.dioceses(), limit,
+                dto -> cursor.isBefore(byName ? dto.dioceseName() : "", dto.dioceseId()),
+                dto -> new KeysetCursor(sort, byName ? dto.dioceseName() : "", dto.dioceseId()));
     }
 
-    @Transactional(readOnly = true)
     public Optional<DioceseDto> getDioceseById(Long id) {
-        return dioceseRepository.findByIdWithParishes(id).map(dioceseMapper::toDto);
+        return readModel.current().diocese(id);
     }
 
     @Transactional
@@ -43,7 +68,8 @@ public class DioceseService {
         }
         Diocese diocese = dioceseMapper.toEntity(dioceseDto);
         Diocese savedDiocese = dioceseRepository.save(diocese);
-        return dioceseMapper.toDto(savedDiocese);
+        events.publishEvent(new DirectoryChangedEvent(DirectoryAggregate.DIOCESE));
+        return dioceseMapper.toDto(savedDiocese, List.of());
     }
 
     @Transactional
@@ -61,7 +87,8 @@ public class DioceseService {
                     existingDiocese.setDioceseEmail(dioceseDto.dioceseEmail());
                     existingDiocese.setDioceseWebsite(dioceseDto.dioceseWebsite());
                     Diocese updatedDiocese = dioceseRepository.save(existingDiocese);
-                    return dioceseMapper.toDto(updatedDiocese);
+                    events.publishEvent(new DirectoryChangedEvent(DirectoryAggregate.DIOCESE));
+                    return toDto(updatedDiocese);
                 });
     }
 
@@ -74,8 +101,15 @@ public class DioceseService {
                         throw new DioceseHasParishesException(diocese.getDioceseName(), (int) parishCount);
                     }
                     dioceseRepository.deleteById(id);
+                    events.publishEvent(new DirectoryChangedEvent(DirectoryAggregate.DIOCESE));
                     return true;
                 })
                 .orElse(false);
     }
-}
\ No newline at end of file
+
+    private DioceseDto toDto(Diocese diocese) {
+        Map<Long, List<String>> abbreviations = DioceseStateAbbreviation.groupByDiocese(
+                dioceseRepository.findStateAbbreviationsByDioceseIdIn(List.of(diocese.getDioceseId())));
+        return dioceseMapper.toDto(diocese, abbreviations.getOrDefault(diocese.getDioceseId(), List.of()));
+    }
+}
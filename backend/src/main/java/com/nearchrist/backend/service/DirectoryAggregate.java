@@ -0,0 +1,31 @@
+package com.nearchrist.backend.service;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The parts of the directory that are written independently. Each one has its own change
+ * counter, so e.g. editing a crusade does not invalidate cached parish responses.
+ */
+public enum DirectoryAggregate {
+    STATE,
+    DIOCESE,
+    PARISH,
+    ADORATION,
+    CRUSADE;
+
+    /**
+     * The aggregates whose data appears in this aggregate's DTOs, itself included: a parish
+     * carries its diocese name and state abbreviation, a diocese the abbreviations of its
+     * parishes' states, and so on.
+     */
+    public Set<DirectoryAggregate> dependencies() {
+        return switch (this) {
+            case STATE -> EnumSet.of(STATE);
+            case DIOCESE -> EnumSet.of(DIOCESE, PARISH, STATE);
+            case PARISH -> EnumSet.of(PARISH, DIOCESE, STATE);
+            case ADORATION -> EnumSet.of(ADORATION, PARISH, DIOCESE, STATE);
+            case CRUSADE -> EnumSet.of(CRUSADE, PARISH, DIOCESE, STATE);
+        };
+    }
+}
@@ -0,0 +1,275 @@
+package com.nearchrist.backend.service;
+
+import com.nearchrist.backend.dto.BatchItemResultDto;
+import com.nearchrist.backend.dto.BatchRequestDto;
+import com.nearchrist.backend.dto.BatchResultDto;
+import com.nearchrist.backend.dto.BatchUpdateDto;
+import com.nearchrist.backend.repository.DirectoryReferences;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Applies a {@link BatchRequestDto} for the parish, adoration and crusade services, inside the
+ * caller's transaction.
+ * <p>
+ * Every item is checked before anything is written: update and delete targets are loaded with one
+ * query, and the services' reference checks run once per distinct set of references. If any item
+ * is rejected, nothing is written and only the rejected items are returned. Otherwise all rows are
+ * written and flushed together, so Hibernate sends them as JDBC batches. An update whose data holds
+ * the version the client read is rejected with 409 when the row has moved on, as is a delete of a
+ * row other records still refer to.
+ */
+final class DirectoryBatches {
+    static final int MAX_ITEMS = 500;
+
+    private DirectoryBatches() {
+    }
+
+    /**
+     * What a service does for one row; {@code write} must not flush.
+     */
+    interface Writer<E, U, D> {
+        E newEntity();
+
+        Long idOf(E entity);
+
+        Long versionOf(E entity);
+
+        Long expectedVersionOf(U dto);
+
+        /**
+         * @throws IllegalArgumentException with the same message a single write would give
+         */
+        DirectoryReferences check(U dto);
+
+        // Copies the plain fields onto a new or managed entity and sets the references; Hibernate alone
+        // sets the version
+        void write(E entity, U dto, DirectoryReferences references);
+
+        // The ids among delete targets that other rows still refer to
+        default Set<Long> referenced(Collection<Long> ids) {
+            return Set.of();
+        }
+
+        // Called after the flush, so the id and version are those written
+        D toDto(E entity, U dto, DirectoryReferences references);
+    }
+
+    // A service's write, given the row, its data and its checked references
+    @FunctionalInterface
+    interface RowWrite<E, U> {
+        void write(E entity, U dto, DirectoryReferences references);
+    }
+
+    // A service's toDto, given the same
+    @FunctionalInterface
+    interface RowDto<E, U, D> {
+        D toDto(E entity, U dto, DirectoryReferences references);
+    }
+
+    static <E, U, D> Writer<E, U, D> writer(Supplier<E> newEntity, Function<E, Long> idOf, Function<E, Long> versionOf,
+                                            Function<U, Long> expectedVersionOf, Function<U, DirectoryReferences> check,
+                                            RowWrite<E, U> write, RowDto<E, U, D> toDto) {
+        return writer(newEntity, idOf, versionOf, expectedVersionOf, check, write, toDto, ids -> Set.of());
+    }
+
+    /**
+     * @param referenced the ids among delete targets that other rows still refer to
+     */
+    static <E, U, D> Writer<E, U, D> writer(Supplier<E> newEntity, Function<E, Long> idOf, Function<E, Long> versionOf,
+                                            Function<U, Long> expectedVersionOf, Function<U, DirectoryReferences> check,
+                                            RowWrite<E, U> write, RowDto<E, U, D> toDto,
+                                            Function<Collection<Long>, Set<Long>> referenced) {
+        return new Writer<>() {
+            @Override
+            public E newEntity() {
+                return newEntity.get();
+            }
+
+            @Override
+            public Long idOf(E entity) {
+                return idOf.apply(entity);
+            }
+
+            @Override
+            public Long versionOf(E entity) {
+                return versionOf.apply(entity);
+            }
+
+            @Override
+            public Long expectedVersionOf(U dto) {
+                return expectedVersionOf.apply(dto);
+            }
+
+            @Override
+            public DirectoryReferences check(U dto) {
+                return check.apply(dto);
+            }
+
+            @Override
+            public void write(E entity, U dto, DirectoryReferences references) {
+                write.write(entity, dto, references);
+            }
+
+            @Override
+            public Set<Long> referenced(Collection<Long> ids) {
+                return referenced.apply(ids);
+            }
+
+            @Override
+            public D toDto(E entity, U dto, DirectoryReferences references) {
+                return toDto.toDto(entity, dto, references);
+            }
+        };
+    }
+
+    static <E, U, D> BatchResultDto<D> apply(BatchRequestDto<U> batch, JpaRepository<E, Long> repository, String name,
+                                             Writer<E, U, D> writer) {
+        List<U> creates = batch.create() == null ? List.of() : batch.create();
+        List<BatchUpdateDto<U>> updates = batch.update() == null ? List.of() : batch.update();
+        List<Long> deletes = batch.delete() == null ? List.of() : batch.delete();
+        if (creates.size() + updates.size() + deletes.size() > MAX_ITEMS) {
+            throw new IllegalArgumentException("A batch may hold at most " + MAX_ITEMS + " items");
+        }
+
+        Set<Long> targetIds = new HashSet<>();
+        updates.stream().map(BatchUpdateDto::id).filter(id -> id != null).forEach(targetIds::add);
+        deletes.stream().filter(id -> id != null).forEach(targetIds::add);
+        Map<Long, E> targets = new HashMap<>();
+        repository.findAllById(targetIds).forEach(entity -> targets.put(writer.idOf(entity), entity));
+
+        List<BatchItemResultDto<D>> rejected = new ArrayList<>();
+        List<DirectoryReferences> createReferences = new ArrayList<>();
+        for (int i = 0; i < creates.size(); i++) {
+            createReferences.add(check(writer, "create", i, null, creates.get(i), rejected));
+        }
+        Set<Long> seen = new HashSet<>();
+        List<DirectoryReferences> updateReferences = new ArrayList<>();
+        for (int i = 0; i < updates.size(); i++) {
+            BatchUpdateDto<U> update = updates.get(i);
+            BatchItemResultDto<D> problem = checkTarget("update", i, update == null ? null : update.id(), seen, targets, name);
+            if (problem == null && update.data() != null) {
+                problem = checkVersion(writer, i, update, targets.get(update.id()), name);
+            }
+            if (problem != null) {
+                rejected.add(problem);
+                updateReferences.add(null);
+            } else {
+                updateReferences.add(check(writer, "update", i, update.id(), update.data(), rejected));
+            }
+        }
+        List<Integer> deletable = new ArrayList<>();
+        for (int i = 0; i < deletes.size(); i++) {
+            BatchItemResultDto<D> problem = checkTarget("delete", i, deletes.get(i), seen, targets, name);
+            if (problem != null) {
+                rejected.add(problem);
+            } else {
+                deletable.add(i);
+            }
+        }
+        Set<Long> referenced = deletable.isEmpty() ? Set.of()
+                : writer.referenced(deletable.stream().map(deletes::get).toList());
+        for (int i : deletable) {
+            Long id = deletes.get(i);
+            if (referenced.contains(id)) {
+                rejected.add(new BatchItemResultDto<>("delete", i, id, 409, name + " " + id + " is referenced by other records", null));
+            }
+        }
+        if (!rejected.isEmpty()) {
+            return new BatchResultDto<>(false, 0, 0, 0, rejected);
+        }
+
+        List<E> created = new ArrayList<>();
+        for (int i = 0; i < creates.size(); i++) {
+            E entity = writer.newEntity();
+            writer.write(entity, creates.get(i), createReferences.get(i));
+            created.add(entity);
+        }
+        for (int i = 0; i < updates.size(); i++) {
+            BatchUpdateDto<U> update = updates.get(i);
+            writer.write(targets.get(update.id()), update.data(), updateReferences.get(i));
+        }
+        for (Long id : deletes) {
+            repository.delete(targets.get(id));
+        }
+        try {
+            repository.flush();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new OptimisticLockingFailureException("The batch was not applied: a " + name.toLowerCase(Locale.ROOT)
+                    + " was changed by another request; fetch it again and retry", e);
+        } catch (DataIntegrityViolationException e) {
+            // A reference deleted, or one to a deleted row added, since the checks; the database's own
+            // message names tables and constraints, so it is not passed on
+            throw new DataIntegrityViolationException("The batch was not applied: another request changed records it "
+                    + "refers to or deletes; check the items and retry", e);
+        }
+
+        List<BatchItemResultDto<D>> items = new ArrayList<>();
+        for (int i = 0; i < creates.size(); i++) {
+            E entity = created.get(i);
+            items.add(new BatchItemResultDto<>("create", i, writer.idOf(entity), 201, name + " created",
+                    writer.toDto(entity, creates.get(i), createReferences.get(i))));
+        }
+        for (int i = 0; i < updates.size(); i++) {
+            BatchUpdateDto<U> update = updates.get(i);
+            items.add(new BatchItemResultDto<>("update", i, update.id(), 200, name + " updated",
+                    writer.toDto(targets.get(update.id()), update.data(), updateReferences.get(i))));
+        }
+        for (int i = 0; i < deletes.size(); i++) {
+            items.add(new BatchItemResultDto<>("delete", i, deletes.get(i), 200, name + " deleted", null));
+        }
+        return new BatchResultDto<>(true, creates.size(), updates.size(), deletes.size(), items);
+    }
+
+    private static <E, U, D> DirectoryReferences check(Writer<E, U, D> writer, String operation, int index, Long id, U dto,
+                                                       List<BatchItemResultDto<D>> rejected) {
+        if (dto == null) {
+            rejected.add(new BatchItemResultDto<>(operation, index, id, 400, "The item has no data", null));
+            return null;
+        }
+        try {
+            return writer.check(dto);
+        } catch (IllegalArgumentException e) {
+            rejected.add(new BatchItemResultDto<>(operation, index, id, 400, e.getMessage(), null));
+            return null;
+        }
+    }
+
+    private static <E, U, D> BatchItemResultDto<D> checkVersion(Writer<E, U, D> writer, int index, BatchUpdateDto<U> update,
+                                                                E target, String name) {
+        try {
+            DirectoryVersions.check(name, update.id(), writer.versionOf(target), writer.expectedVersionOf(update.data()));
+            return null;
+        } catch (OptimisticLockingFailureException e) {
+            return new BatchItemResultDto<>("update", index, update.id(), 409, e.getMessage(), null);
+        }
+    }
+
+    // Null when the item's target exists and no other item of the batch updates or deletes it
+    private static <D> BatchItemResultDto<D> checkTarget(String operation, int index, Long id, Set<Long> seen,
+                                                         Map<Long, ?> targets, String name) {
+        if (id == null) {
+            return new BatchItemResultDto<>(operation, index, null, 400, "ID is required", null);
+        }
+        if (!seen.add(id)) {
+            return new BatchItemResultDto<>(operation, index, id, 400, name + " " + id + " appears more than once in the batch", null);
+        }
+        if (!targets.containsKey(id)) {
+            return new BatchItemResultDto<>(operation, index, id, 404, name + " not found", null);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,9 @@
+package com.nearchrist.backend.service;
+
+/**
+ * Published by the directory services after a create, update or delete. Once the transaction
+ * commits, {@link DirectoryReadModel} bumps the aggregate's change counter and rebuilds.
+ */
+public record DirectoryChangedEvent(
+        DirectoryAggregate aggregate
+) {}
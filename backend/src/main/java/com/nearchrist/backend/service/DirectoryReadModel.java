@@ -0,0 +1,196 @@
+package com.nearchrist.backend.service;
+
+import com.nearchrist.backend.dto.DioceseDto;
+import com.nearchrist.backend.dto.DioceseStateAbbreviation;
+import com.nearchrist.backend.mapper.DioceseMapper;
+import com.nearchrist.backend.mapper.StateMapper;
+import com.nearchrist.backend.repository.AdorationRepository;
+import com.nearchrist.backend.repository.CrusadeRepository;
+import com.nearchrist.backend.repository.DioceseRepository;
+import com.nearchrist.backend.repository.ParishRepository;
+import com.nearchrist.backend.repository.StateRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Holds the current {@link DirectorySnapshot} that serves every GET on states, dioceses, parishes,
+ * adorations and crusades, so those reads never touch the database.
+ * <p>
+ * After a write commits, the services' {@link DirectoryChangedEvent} bumps the aggregate's change
+ * counter and schedules a rebuild {@code read-model.rebuild-delay-ms} later; further writes in that
+ * window share the same rebuild. The new snapshot is loaded in one repeatable-read transaction and
+ * swapped in atomically.
+ * <p>
+ * Each snapshot records the change counters as they were before its load began, so its ETags can
+ * only ever be older than its data, never newer: a client may revalidate once too often but never
+ * keeps a stale body.
+ */
+@Component
+public class DirectoryReadModel {
+    private static final Logger log = LoggerFactory.getLogger(DirectoryReadModel.class);
+
+    private static final long RETRY_DELAY_MS = 5_000;
+
+    private final StateRepository stateRepository;
+    private final DioceseRepository dioceseRepository;
+    private final ParishRepository parishRepository;
+    private final AdorationRepository adorationRepository;
+    private final CrusadeRepository crusadeRepository;
+    private final StateMapper stateMapper;
+    private final DioceseMapper dioceseMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final long rebuildDelayMs;
+
+    private final AtomicReference<DirectorySnapshot> current = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicLongArray changeCounts = new AtomicLongArray(DirectoryAggregate.values().length);
+    private final long startedAt = System.currentTimeMillis();
+    // Epoch millis of each aggregate's latest change; changes from before a restart count as made at startup
+    private final AtomicLongArray changeTimes = new AtomicLongArray(initialChangeTimes(startedAt));
+    // Counters restart at zero with the process; the epoch keeps ETags from before a restart from matching
+    private final String epoch = Long.toString(startedAt, Character.MAX_RADIX);
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "directory-read-model");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public DirectoryReadModel(StateRepository stateRepository, DioceseRepository dioceseRepository,
+                              ParishRepository parishRepository, AdorationRepository adorationRepository,
+                              CrusadeRepository crusadeRepository, StateMapper stateMapper, DioceseMapper dioceseMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${read-model.rebuild-delay-ms:100}") long rebuildDelayMs) {
+        this.stateRepository = stateRepository;
+        this.dioceseRepository = dioceseRepository;
+        this.parishRepository = parishRepository;
+        this.adorationRepository = adorationRepository;
+        this.crusadeRepository = crusadeRepository;
+        this.stateMapper = stateMapper;
+        this.dioceseMapper = dioceseMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        // One database snapshot for all five queries, so e.g. an adoration never names a parish the parish list lacks
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.rebuildDelayMs = rebuildDelayMs;
+    }
+
+    /**
+     * The latest snapshot. Only the very first call (normally the warm-up at startup) loads it
+     * on the calling thread.
+     */
+    public DirectorySnapshot current() {
+        DirectorySnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : publish(load());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            current();
+        } catch (RuntimeException e) {
+            // The first request loads it instead
+            log.error("Could not load the directory read model at startup", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDirectoryChanged(DirectoryChangedEvent event) {
+        log.debug("Directory changed ({}), scheduling read model rebuild", event.aggregate());
+        // Only after commit: a snapshot whose counters include this change must also see its data.
+        // The time goes first, so a snapshot that counts this change also has its time.
+        changeTimes.accumulateAndGet(event.aggregate().ordinal(), System.currentTimeMillis(), Math::max);
+        changeCounts.incrementAndGet(event.aggregate().ordinal());
+        scheduleRebuild(rebuildDelayMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    private void scheduleRebuild(long delayMs) {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuilder.schedule(this::rebuild, delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void rebuild() {
+        // Cleared before loading, so a write that commits during the load schedules another rebuild
+        rebuildScheduled.set(false);
+        try {
+            publish(load());
+        } catch (RuntimeException e) {
+            log.error("Directory read model rebuild failed, retrying in {} ms", RETRY_DELAY_MS, e);
+            scheduleRebuild(RETRY_DELAY_MS);
+        }
+    }
+
+    // A load that started later saw at least as recent data, so the higher version always wins
+    private DirectorySnapshot publish(DirectorySnapshot loaded) {
+        return current.accumulateAndGet(loaded,
+                (existing, candidate) -> existing == null || candidate.version() > existing.version() ? candidate : existing);
+    }
+
+    private DirectorySnapshot load() {
+        long version = versions.incrementAndGet();
+        long[] changes = new long[changeCounts.length()];
+        for (int i = 0; i < changes.length; i++) {
+            changes[i] = changeCounts.get(i);
+        }
+        long[] times = new long[changeTimes.length()];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = changeTimes.get(i);
+        }
+        return transactionTemplate.execute(status -> new DirectorySnapshot(version, epoch, changes, times,
+                stateMapper.toDtoList(stateRepository.findAll()),
+                loadDioceses(),
+                collect(parishRepository.streamAllDtos()),
+                collect(adorationRepository.streamAllDtos()),
+                collect(crusadeRepository.streamAllDtos()),
+                current.get()));
+    }
+
+    private static long[] initialChangeTimes(long startedAt) {
+        long[] times = new long[DirectoryAggregate.values().length];
+        Arrays.fill(times, startedAt);
+        return times;
+    }
+
+    // The parish, adoration and crusade streams project each row straight into its DTO in one joined
+    // query, so no entity is hydrated or tracked, and their fetch-size hint has the driver read them
+    // in chunks rather than buffer the whole table
+    private static <T> List<T> collect(Stream<T> rows) {
+        try (rows) {
+            return rows.toList();
+        }
+    }
+
+    private List<DioceseDto> loadDioceses() {
+        Map<Long, List<String>> abbreviations = DioceseStateAbbreviation.groupByDiocese(dioceseRepository.findAllStateAbbreviations());
+        return dioceseRepository.findAll().stream()
+                .map(d -> dioceseMapper.toDto(d, abbreviations.getOrDefault(d.getDioceseId(), List.of())))
+                .toList();
+    }
+}
@@ -0,0 +1,111 @@
+package com.nearchrist.backend.service;
+
+import com.nearchrist.backend.repository.DirectoryReferences;
+import com.nearchrist.backend.repository.ParishRepository;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.PSQLState;
+import org.postgresql.util.ServerErrorMessage;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The reference checks of parish, adoration and crusade writes: one query for every row a write
+ * refers to, and the same messages when a foreign key catches a row deleted after that query.
+ */
+final class DirectoryReferenceChecks {
+
+    private DirectoryReferenceChecks() {
+    }
+
+    /**
+     * @param parishId null for a parish write, which refers to no parish
+     */
+    static DirectoryReferences check(ParishRepository parishRepository, Long stateId, Long dioceseId, Long parishId) {
+        return validate(parishRepository.findReferences(stateId, dioceseId, parishId), stateId, dioceseId, parishId);
+    }
+
+    /**
+     * The same check, querying each distinct combination of references once per {@code cache}.
+     */
+    static DirectoryReferences check(ParishRepository parishRepository, Map<List<Long>, DirectoryReferences> cache,
+                                     Long stateId, Long dioceseId, Long parishId) {
+        DirectoryReferences references = cache.computeIfAbsent(Arrays.asList(stateId, dioceseId, parishId),
+                key -> parishRepository.findReferences(stateId, dioceseId, parishId));
+        return validate(references, stateId, dioceseId, parishId);
+    }
+
+    private static DirectoryReferences validate(DirectoryReferences references, Long stateId, Long dioceseId, Long parishId) {
+        if (references.getDioceseName() == null) {
+            throw new IllegalArgumentException("Diocese with ID " + dioceseId + " does not exist");
+        }
+        if (parishId != null) {
+            if (references.getParishName() == null) {
+                throw new IllegalArgumentException("Parish with ID " + parishId + " does not exist");
+            }
+            if (!dioceseId.equals(references.getParishDioceseId())) {
+                throw new IllegalArgumentException("Parish with ID " + parishId + " does not belong to Diocese with ID " + dioceseId);
+            }
+        }
+        if (!Boolean.TRUE.equals(references.getStateExists())) {
+            throw new IllegalArgumentException("State with ID " + stateId + " does not exist");
+        }
+        return references;
+    }
+
+    /**
+     * Flushes a single create or update. A reference deleted since {@link #check} fails here with the
+     * message the check would have given, and a row another request updated since it was read with a
+     * 409.
+     *
+     * @param parishId null for a parish write, which refers to no parish
+     */
+    static void flush(JpaRepository<?, Long> repository, String name, Long stateId, Long dioceseId, Long parishId) {
+        try {
+            repository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw translate(e, stateId, dioceseId, parishId);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw DirectoryVersions.changedConcurrently(name, e);
+        }
+    }
+
+    /*
+     * The message check would have given for the foreign key a flush violated, or the exception
+     * itself when it is not a missing reference. The key is told by the constraint name PostgreSQL
+     * reports, which V1 left at its default of <table>_<column>_fkey.
+     */
+    private static RuntimeException translate(DataIntegrityViolationException e, Long stateId, Long dioceseId, Long parishId) {
+        String constraint = violatedForeignKey(e);
+        if (constraint == null) {
+            return e;
+        }
+        if (constraint.endsWith("_diocese_id_fkey")) {
+            return new IllegalArgumentException("Diocese with ID " + dioceseId + " does not exist");
+        }
+        if (constraint.endsWith("_parish_id_fkey")) {
+            return new IllegalArgumentException("Parish with ID " + parishId + " does not exist");
+        }
+        if (constraint.endsWith("_state_id_fkey")) {
+            return new IllegalArgumentException("State with ID " + stateId + " does not exist");
+        }
+        return e;
+    }
+
+    // A batched flush wraps the driver's exception in a BatchUpdateException, so the whole chain is searched
+    private static String violatedForeignKey(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PSQLException psql) {
+                ServerErrorMessage message = psql.getServerErrorMessage();
+                return PSQLState.FOREIGN_KEY_VIOLATION.getState().equals(psql.getSQLState()) && message != null
+                        ? message.getConstraint()
+                        : null;
+            }
+        }
+        return null;
+    }
+}
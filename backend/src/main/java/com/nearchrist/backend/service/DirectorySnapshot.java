@@ -0,0 +1,261 @@
+package com.nearchrist.backend.service;
+
+import com.nearchrist.backend.dto.AdorationDto;
+import com.nearchrist.backend.dto.CrusadeDto;
+import com.nearchrist.backend.dto.DioceseDto;
+import com.nearchrist.backend.dto.ParishDto;
+import com.nearchrist.backend.dto.StateDto;
+import com.nearchrist.backend.dto.SuggestionDto;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable copy of the public directory (states, dioceses, parishes, adorations and crusades)
+ * together with the lookup maps the public GET endpoints need. It is never modified after
+ * construction, so any number of requests can read it without locking; {@link DirectoryReadModel}
+ * replaces it as a whole when the data changes.
+ */
+public final class DirectorySnapshot {
+    private final long version;
+    private final String epoch;
+    private final long[] changeCounts;
+    private final long[] changeTimes;
+
+    private final List<StateDto> states;
+    private final Map<Long, StateDto> statesById;
+
+    private final List<DioceseDto> dioceses;
+    private final List<DioceseDto> diocesesByName;
+    private final Map<Long, DioceseDto> diocesesById;
+
+    private final List<ParishDto> parishes;
+    private final List<ParishDto> parishesByName;
+    private final Map<Long, ParishDto> parishesById;
+    private final ParishSpatialIndex parishIndex;
+    private final SuggestIndex suggestIndex;
+
+    private final List<AdorationDto> adorations;
+    private final Map<Long, AdorationDto> adorationsById;
+    private final Map<Long, List<AdorationDto>> adorationsByState;
+    private final Map<Long, List<AdorationDto>> adorationsByDiocese;
+    private final Map<Long, List<AdorationDto>> adorationsByParish;
+    private final AdorationTimetable adorationTimetable;
+    private final AdorationCoverage adorationCoverage;
+
+    private final List<CrusadeDto> crusades;
+    private final Map<Long, CrusadeDto> crusadesById;
+    private final Map<Long, List<CrusadeDto>> crusadesByState;
+    private final Map<Long, List<CrusadeDto>> crusadesByDiocese;
+    private final Map<Long, List<CrusadeDto>> crusadesByParish;
+
+    /**
+     * {@code previous} may be null; when given, its derived indexes are reused for every aggregate
+     * whose change counters (and those of its dependencies) have not moved since it was loaded.
+     */
+    DirectorySnapshot(long version, String epoch, long[] changeCounts, long[] changeTimes, List<StateDto> states,
+                      List<DioceseDto> dioceses, List<ParishDto> parishes, List<AdorationDto> adorations,
+                      List<CrusadeDto> crusades, DirectorySnapshot previous) {
+        this.version = version;
+        this.epoch = epoch;
+        this.changeCounts = changeCounts.clone();
+        this.changeTimes = changeTimes.clone();
+
+        this.states = sorted(states, Comparator.comparing(StateDto::stateId));
+        this.statesById = byId(this.states, StateDto::stateId);
+
+        this.dioceses = sorted(dioceses, Comparator.comparing(DioceseDto::dioceseId));
+        this.diocesesByName = sorted(dioceses, Comparator.comparing(DioceseDto::dioceseName).thenComparing(DioceseDto::dioceseId));
+        this.diocesesById = byId(this.dioceses, DioceseDto::dioceseId);
+
+        this.parishes = sorted(parishes, Comparator.comparing(ParishDto::parishId));
+        this.parishesByName = sorted(parishes, Comparator.comparing(ParishDto::parishName).thenComparing(ParishDto::parishId));
+        this.parishesById = byId(this.parishes, ParishDto::parishId);
+        boolean parishesUnchanged = unchanged(previous, DirectoryAggregate.PARISH.dependencies());
+        this.parishIndex = parishesUnchanged ? previous.parishIndex : new ParishSpatialIndex(this.parishes);
+        // Covers diocese names too: a diocese and a parish depend on the same aggregates
+        this.suggestIndex = parishesUnchanged ? previous.suggestIndex : new SuggestIndex(this.dioceses, this.parishes);
+
+        this.adorations = sorted(adorations, Comparator.comparing(AdorationDto::adorationId));
+        this.adorationsById = byId(this.adorations, AdorationDto::adorationId);
+        this.adorationsByState = groupBy(this.adorations, AdorationDto::stateId);
+        this.adorationsByDiocese = groupBy(this.adorations, AdorationDto::dioceseId);
+        this.adorationsByParish = groupBy(this.adorations, AdorationDto::parishId);
+        boolean adorationsUnchanged = unchanged(previous, DirectoryAggregate.ADORATION.dependencies());
+        this.adorationTimetable = adorationsUnchanged ? previous.adorationTimetable : new AdorationTimetable(this.states, this.adorations);
+        // Even when adorations did change, bitmaps of the rows that did not are carried over
+        this.adorationCoverage = adorationsUnchanged ? previous.adorationCoverage
+                : new AdorationCoverage(this.adorations, previous == null ? null : previous.adorationCoverage);
+
+        this.crusades = sorted(crusades, Comparator.comparing(CrusadeDto::crusadeId));
+        this.crusadesById = byId(this.crusades, CrusadeDto::crusadeId);
+        this.crusadesByState = groupBy(this.crusades, CrusadeDto::stateId);
+        this.crusadesByDiocese = groupBy(this.crusades, CrusadeDto::dioceseId);
+        this.crusadesByParish = groupBy(this.crusades, CrusadeDto::parishId);
+    }
+
+    /**
+     * Increases with every rebuild, so two reads that see the same version saw the same data.
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Strong ETag for every response built from this aggregate's data. Change counters only grow,
+     * so their sum over the aggregate's dependencies changes whenever any data in its DTOs does.
+     */
+    public String etag(DirectoryAggregate aggregate) {
+        long changes = 0;
+        for (DirectoryAggregate dependency : aggregate.dependencies()) {
+            changes += changeCounts[dependency.ordinal()];
+        }
+        return "\"" + epoch + "-" + changes + "\"";
+    }
+
+    /**
+     * {@code Last-Modified} to pair with {@link #etag}: the latest change to the aggregate or its
+     * dependencies counted in this snapshot, or the process start if there was none since.
+     */
+    public Instant lastModified(DirectoryAggregate aggregate) {
+        long latest = 0;
+        for (DirectoryAggregate dependency : aggregate.dependencies()) {
+            latest = Math.max(latest, changeTimes[dependency.ordinal()]);
+        }
+        return Instant.ofEpochMilli(latest);
+    }
+
+    public List<StateDto> states() {
+        return states;
+    }
+
+    public Optional<StateDto> state(Long id) {
+        return Optional.ofNullable(statesById.get(id));
+    }
+
+    // Lists are sorted by id unless named "ByName", which are sorted by (name, id) for keyset pages
+
+    public List<DioceseDto> dioceses() {
+        return dioceses;
+    }
+
+    public List<DioceseDto> diocesesByName() {
+        return diocesesByName;
+    }
+
+    public Optional<DioceseDto> diocese(Long id) {
+        return Optional.ofNullable(diocesesById.get(id));
+    }
+
+    public List<ParishDto> parishes() {
+        return parishes;
+    }
+
+    public List<ParishDto> parishesByName() {
+        return parishesByName;
+    }
+
+    public Optional<ParishDto> parish(Long id) {
+        return Optional.ofNullable(parishesById.get(id));
+    }
+
+    ParishSpatialIndex parishIndex() {
+        return parishIndex;
+    }
+
+    /**
+     * Typeahead over parish names, diocese names, suburbs and postcodes, best matches first.
+     */
+    public List<SuggestionDto> suggest(String query, int limit) {
+        return suggestIndex.suggest(query, limit);
+    }
+
+    /**
+     * Adorations matching every non-null filter, sorted by id.
+     */
+    public List<AdorationDto> adorations(Long stateId, Long dioceseId, Long parishId) {
+        return filter(adorations, adorationsByState, adorationsByDiocese, adorationsByParish,
+                AdorationDto::stateId, AdorationDto::dioceseId, stateId, dioceseId, parishId);
+    }
+
+    public Optional<AdorationDto> adoration(Long id) {
+        return Optional.ofNullable(adorationsById.get(id));
+    }
+
+    AdorationTimetable adorationTimetable() {
+        return adorationTimetable;
+    }
+
+    AdorationCoverage adorationCoverage() {
+        return adorationCoverage;
+    }
+
+    /**
+     * Crusades matching every non-null filter, sorted by id.
+     */
+    public List<CrusadeDto> crusades(Long stateId, Long dioceseId, Long parishId) {
+        return filter(crusades, crusadesByState, crusadesByDiocese, crusadesByParish,
+                CrusadeDto::stateId, CrusadeDto::dioceseId, stateId, dioceseId, parishId);
+    }
+
+    public Optional<CrusadeDto> crusade(Long id) {
+        return Optional.ofNullable(crusadesById.get(id));
+    }
+
+    // Starts from the narrowest prebuilt group (parish, then diocese, then state) and only
+    // scans that group for any remaining filters.
+    private static <T> List<T> filter(List<T> all, Map<Long, List<T>> byState, Map<Long, List<T>> byDiocese,
+                                      Map<Long, List<T>> byParish, Function<T, Long> stateOf, Function<T, Long> dioceseOf,
+                                      Long stateId, Long dioceseId, Long parishId) {
+        List<T> candidates;
+        if (parishId != null) {
+            candidates = byParish.getOrDefault(parishId, List.of());
+        } else if (dioceseId != null) {
+            candidates = byDiocese.getOrDefault(dioceseId, List.of());
+        } else if (stateId != null) {
+            candidates = byState.getOrDefault(stateId, List.of());
+        } else {
+            return all;
+        }
+        boolean matchState = stateId != null && (parishId != null || dioceseId != null);
+        boolean matchDiocese = dioceseId != null && parishId != null;
+        if (!matchState && !matchDiocese) {
+            return candidates;
+        }
+        return candidates.stream()
+                .filter(row -> !matchState || stateId.equals(stateOf.apply(row)))
+                .filter(row -> !matchDiocese || dioceseId.equals(dioceseOf.apply(row)))
+                .toList();
+    }
+
+    private boolean unchanged(DirectorySnapshot previous, Set<DirectoryAggregate> aggregates) {
+        if (previous == null) {
+            return false;
+        }
+        for (DirectoryAggregate aggregate : aggregates) {
+            if (previous.changeCounts[aggregate.ordinal()] != changeCounts[aggregate.ordinal()]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <T> List<T> sorted(List<T> rows, Comparator<T> order) {
+        return rows.stream().sorted(order).toList();
+    }
+
+    private static <T> Map<Long, T> byId(List<T> rows, Function<T, Long> idOf) {
+        return rows.stream().collect(Collectors.toUnmodifiableMap(idOf, Function.identity()));
+    }
+
+    private static <T> Map<Long, List<T>> groupBy(List<T> rows, Function<T, Long> keyOf) {
+        // groupingBy keeps encounter order, so every group stays sorted by id
+        return Map.copyOf(rows.stream().collect(Collectors.groupingBy(keyOf, Collectors.toUnmodifiableList())));
+    }
+}
@@ -0,0 +1,28 @@
+package com.nearchrist.backend.service;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+/**
+ * The optimistic-locking check of parish, adoration and crusade updates against the version a
+ * client last read. Updates between that check and the flush are caught by the versioned UPDATE.
+ */
+final class DirectoryVersions {
+
+    private DirectoryVersions() {
+    }
+
+    /**
+     * @param expected null when the client did not say which version it read
+     */
+    static void check(String name, Long id, Long current, Long expected) {
+        if (expected != null && !expected.equals(current)) {
+            throw new OptimisticLockingFailureException(
+                    name + " " + id + " is at version " + current + ", not " + expected + "; fetch it again and retry");
+        }
+    }
+
+    static OptimisticLockingFailureException changedConcurrently(String name, Throwable cause) {
+        return new OptimisticLockingFailureException(
+                name + " was changed by another request; fetch it again and retry", cause);
+    }
+}
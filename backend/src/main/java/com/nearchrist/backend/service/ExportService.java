@@ -0,0 +1,238 @@
+package com.nearchrist.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nearchrist.backend.dto.AdorationDto;
+import com.nearchrist.backend.dto.CrusadeDto;
+import com.nearchrist.backend.dto.ParishDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.query.SelectionQuery;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Full dumps of the parishes, adorations or crusades, optionally of one state or diocese.
+ * <p>
+ * Unlike the public GETs these read the database rather than the read model, so a dump is exactly
+ * what was committed when it started. Rows come through a server-side cursor of a stateless session:
+ * nothing is kept in a persistence context, and only one fetch of rows is in memory at a time.
+ */
+@Service
+public class ExportService {
+    private static final int FETCH_SIZE = 1_000;
+
+    private final SessionFactory sessionFactory;
+    private final DirectoryReadModel readModel;
+    private final ObjectMapper objectMapper;
+
+    public ExportService(EntityManagerFactory entityManagerFactory, DirectoryReadModel readModel, ObjectMapper objectMapper) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.readModel = readModel;
+        this.objectMapper = objectMapper;
+    }
+
+    public enum Format {
+        CSV("csv"),
+        NDJSON("ndjson");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    /**
+     * A dump ready to be written; nothing is read until {@code body} runs.
+     */
+    public record Export(String fileName, Format format, Body body) {}
+
+    @FunctionalInterface
+    public interface Body {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    // Each query selects the DTO's components in order, so rows read exactly like the JSON API's
+    private enum Table {
+        PARISHES("parishes", ParishDto.class, "p.parishId", "s.stateId", "d.dioceseId",
+                "select new com.nearchrist.backend.dto.ParishDto(p.parishId, p.parishName, p.parishStNumber, p.parishStName,"
+                        + " p.parishSuburb, p.parishPostcode, p.parishPhone, p.parishEmail, p.parishWebsite,"
+                        + " d.dioceseId, d.dioceseName, s.stateId, s.stateAbbreviation, p.parishLatitude, p.parishLongitude, p.parishVersion)"
+                        + " from Parish p join p.diocese d join p.state s"),
+        ADORATIONS("adorations", AdorationDto.class, "a.adorationId", "s.stateId", "d.dioceseId",
+                "select new com.nearchrist.backend.dto.AdorationDto(a.adorationId, s.stateId, s.stateAbbreviation,"
+                        + " d.dioceseId, d.dioceseName, p.parishId, p.parishName, a.adorationType, a.adorationLocation,"
+                        + " a.adorationLocationType, a.adorationDay, a.adorationStart, a.adorationEnd, a.adorationVersion)"
+                        + " from Adoration a join a.state s join a.diocese d join a.parish p"),
+        CRUSADES("crusades", CrusadeDto.class, "c.crusadeId", "s.stateId", "d.dioceseId",
+                "select new com.nearchrist.backend.dto.CrusadeDto(c.crusadeId, s.stateId, s.stateAbbreviation,"
+                        + " d.dioceseId, d.dioceseName, p.parishId, p.parishName, c.confessionStartTime, c.confessionEndTime,"
+                        + " c.massStartTime, c.massEndTime, c.crusadeStartTime, c.crusadeEndTime, c.contactName,"
+                        + " c.contactPhone, c.contactEmail, c.comments, c.crusadeVersion)"
+                        + " from Crusade c join c.state s join c.diocese d join c.parish p");
+
+        private final String path;
+        private final Class<? extends Record> type;
+        private final String id;
+        private final String state;
+        private final String diocese;
+        private final String select;
+
+        Table(String path, Class<? extends Record> type, String id, String state, String diocese, String select) {
+            this.path = path;
+            this.type = type;
+            this.id = id;
+            this.state = state;
+            this.diocese = diocese;
+            this.select = select;
+        }
+    }
+
+    /**
+     * @param kind   parishes, adorations or crusades
+     * @param format csv or ndjson
+     */
+    public Export export(String kind, String format, Long stateId, Long dioceseId) {
+        Table table = Arrays.stream(Table.values())
+                .filter(t -> t.path.equals(kind))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Cannot export " + kind + "; use parishes, adorations or crusades"));
+        Format dumpFormat = Arrays.stream(Format.values())
+                .filter(f -> f.extension.equals(format.toLowerCase(Locale.ROOT)))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("format must be csv or ndjson"));
+        DirectorySnapshot snapshot = readModel.current();
+        if (stateId != null && snapshot.state(stateId).isEmpty()) {
+            throw new IllegalArgumentException("State with ID " + stateId + " does not exist");
+        }
+        if (dioceseId != null && snapshot.diocese(dioceseId).isEmpty()) {
+            throw new IllegalArgumentException("Diocese with ID " + dioceseId + " does not exist");
+        }
+
+        StringBuilder query = new StringBuilder(table.select);
+        String where = " where ";
+        if (stateId != null) {
+            query.append(where).append(table.state).append(" = :stateId");
+            where = " and ";
+        }
+        if (dioceseId != null) {
+            query.append(where).append(table.diocese).append(" = :dioceseId");
+        }
+        query.append(" order by ").append(table.id);
+
+        StringBuilder fileName = new StringBuilder(table.path);
+        if (stateId != null) {
+            fileName.append("-state-").append(stateId);
+        }
+        if (dioceseId != null) {
+            fileName.append("-diocese-").append(dioceseId);
+        }
+        fileName.append('.').append(dumpFormat.extension);
+        return new Export(fileName.toString(), dumpFormat,
+                out -> write(table, query.toString(), stateId, dioceseId, dumpFormat, out));
+    }
+
+    private void write(Table table, String query, Long stateId, Long dioceseId, Format format, OutputStream out) throws IOException {
+        RecordComponent[] components = table.type.getRecordComponents();
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            // PostgreSQL only streams through a cursor inside a transaction; otherwise it sends every row at once
+            Transaction transaction = session.beginTransaction();
+            SelectionQuery<? extends Record> rows = session.createSelectionQuery(query, table.type)
+                    .setFetchSize(FETCH_SIZE)
+                    .setReadOnly(true);
+            if (stateId != null) {
+                rows.setParameter("stateId", stateId);
+            }
+            if (dioceseId != null) {
+                rows.setParameter("dioceseId", dioceseId);
+            }
+            try (ScrollableResults<? extends Record> results = rows.scroll(ScrollMode.FORWARD_ONLY)) {
+                if (format == Format.CSV) {
+                    writeCsv(components, results, out);
+                } else {
+                    writeNdjson(results, out);
+                }
+            } finally {
+                transaction.rollback();
+            }
+        }
+    }
+
+    private void writeNdjson(ScrollableResults<? extends Record> results, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // One object per line, as NDJSON readers expect
+            json.setRootValueSeparator(null);
+            while (results.next()) {
+                json.writeObject(results.get());
+                json.writeRaw('\n');
+            }
+        }
+    }
+
+    private static void writeCsv(RecordComponent[] components, ScrollableResults<? extends Record> results, OutputStream out)
+            throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        Method[] accessors = new Method[components.length];
+        for (int i = 0; i < components.length; i++) {
+            accessors[i] = components[i].getAccessor();
+            csv.write(i == 0 ? "" : ",");
+            csv.write(components[i].getName());
+        }
+        csv.write("\r\n");
+        while (results.next()) {
+            Record row = results.get();
+            for (int i = 0; i < accessors.length; i++) {
+                if (i > 0) {
+                    csv.write(',');
+                }
+                Object value = value(accessors[i], row);
+                if (value != null) {
+                    csv.write(cell(value.toString()));
+                }
+            }
+            csv.write("\r\n");
+        }
+        // Flushed but not closed: the caller owns the stream
+        csv.flush();
+    }
+
+    private static Object value(Method accessor, Record row) {
+        try {
+            return accessor.invoke(row);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot read " + accessor.getName() + " of " + row.getClass().getSimpleName(), e);
+        }
+    }
+
+    // RFC 4180: quote cells holding a separator, a quote or a line break, doubling inner quotes
+    private static String cell(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                return '"' + text.replace("\"", "\"\"") + '"';
+            }
+        }
+        return text;
+    }
+}
@@ -0,0 +1,143 @@
+package com.nearchrist.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneOffsetTransitionRule;
+import java.time.zone.ZoneRules;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Builds RFC 5545 content lines: escaping, folding at 75 octets and CRLF line ends. Each instance
+ * collects one component (a VEVENT or a VTIMEZONE) and hands it out as UTF-8 bytes.
+ */
+final class ICalendarWriter {
+    private static final DateTimeFormatter LOCAL = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter UTC = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private final StringBuilder text = new StringBuilder(512);
+
+    ICalendarWriter line(String name, String value) {
+        String line = name + ":" + value;
+        // Fold on character boundaries, counting UTF-8 octets; continuation lines start with a space
+        int octets = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            int size = c < 0x80 ? 1 : c < 0x800 ? 2 : Character.isHighSurrogate(c) ? 4 : Character.isLowSurrogate(c) ? 0 : 3;
+            if (octets + size > MAX_LINE_OCTETS) {
+                text.append("\r\n ");
+                octets = 1;
+            }
+            text.append(c);
+            octets += size;
+        }
+        text.append("\r\n");
+        return this;
+    }
+
+    /**
+     * A TEXT property, escaped; blank values are left out.
+     */
+    ICalendarWriter text(String name, String value) {
+        if (value == null || value.isBlank()) {
+            return this;
+        }
+        return line(name, value.trim()
+                .replace("\\", "\\\\")
+                .replace(";", "\\;")
+                .replace(",", "\\,")
+                .replace("\r\n", "\\n")
+                .replace("\n", "\\n"));
+    }
+
+    ICalendarWriter localTime(String name, ZoneId zone, LocalDateTime time) {
+        return line(name + ";TZID=" + zone.getId(), LOCAL.format(time));
+    }
+
+    ICalendarWriter date(String name, LocalDate date) {
+        return line(name + ";VALUE=DATE", DATE.format(date));
+    }
+
+    ICalendarWriter utc(String name, Instant time) {
+        return line(name, UTC.format(time));
+    }
+
+    byte[] toBytes() {
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String byDay(Set<DayOfWeek> days) {
+        return days.stream().map(day -> day.name().substring(0, 2)).collect(Collectors.joining(","));
+    }
+
+    /**
+     * VTIMEZONE for a zone, from its current rules. Clients that know the TZID use their own copy;
+     * the rest need this to place local times.
+     */
+    static byte[] timeZone(ZoneId zone) {
+        ZoneRules rules = zone.getRules();
+        ICalendarWriter component = new ICalendarWriter()
+                .line("BEGIN", "VTIMEZONE")
+                .line("TZID", zone.getId());
+        List<ZoneOffsetTransitionRule> transitions = rules.getTransitionRules();
+        if (transitions.isEmpty()) {
+            // No daylight saving: one fixed offset
+            ZoneOffset offset = rules.getStandardOffset(Instant.now());
+            component.line("BEGIN", "STANDARD")
+                    .line("DTSTART", "19700101T000000")
+                    .line("TZOFFSETFROM", offset(offset))
+                    .line("TZOFFSETTO", offset(offset))
+                    .line("END", "STANDARD");
+        }
+        for (ZoneOffsetTransitionRule transition : transitions) {
+            String kind = transition.getOffsetAfter().equals(transition.getStandardOffset()) ? "STANDARD" : "DAYLIGHT";
+            component.line("BEGIN", kind)
+                    .line("DTSTART", LOCAL.format(transition.createTransition(1970).getDateTimeBefore()))
+                    .line("TZOFFSETFROM", offset(transition.getOffsetBefore()))
+                    .line("TZOFFSETTO", offset(transition.getOffsetAfter()))
+                    .line("RRULE", "FREQ=YEARLY;BYMONTH=" + transition.getMonth().getValue() + ";" + yearlyDay(transition))
+                    .line("END", kind);
+        }
+        return component.line("END", "VTIMEZONE").toBytes();
+    }
+
+    // The day within the month a transition rule falls on, as RRULE parts
+    private static String yearlyDay(ZoneOffsetTransitionRule transition) {
+        int dayOfMonth = transition.getDayOfMonthIndicator();
+        DayOfWeek weekday = transition.getDayOfWeek();
+        if (weekday == null) {
+            // A fixed day; negative indicators count back from the month's end, as in BYMONTHDAY
+            return "BYMONTHDAY=" + dayOfMonth;
+        }
+        String day = weekday.name().substring(0, 2);
+        if (dayOfMonth == -1) {
+            return "BYDAY=-1" + day;
+        }
+        if (dayOfMonth > 0 && dayOfMonth <= 22 && dayOfMonth % 7 == 1) {
+            // "First Sunday on or after the 8th" is the second Sunday, and so on
+            return "BYDAY=" + (dayOfMonth / 7 + 1) + day;
+        }
+        // The weekday within the seven days starting (or, counting back, ending) at the indicator
+        int step = dayOfMonth > 0 ? 1 : -1;
+        StringBuilder days = new StringBuilder();
+        for (int i = 0; i < 7; i++) {
+            days.append(i == 0 ? "" : ",").append(dayOfMonth + i * step);
+        }
+        return "BYDAY=" + day + ";BYMONTHDAY=" + days;
+    }
+
+    private static String offset(ZoneOffset offset) {
+        int seconds = offset.getTotalSeconds();
+        int minutes = Math.abs(seconds) / 60;
+        return String.format("%s%02d%02d", seconds < 0 ? "-" : "+", minutes / 60, minutes % 60);
+    }
+}
@@ -0,0 +1,119 @@
+package com.nearchrist.backend.service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * The tables a bulk import can load, with the columns an input row may carry. Input field names
+ * are matched in the normalized form of {@link ImportRowReader#normalizeName}, so a column can be
+ * named after either the DTO field ({@code parishName}) or the table column ({@code parish_name}).
+ */
+public enum ImportKind {
+    PARISHES("parishes", DirectoryAggregate.PARISH, List.of(
+            Column.text("parish_name", 255, true),
+            Column.text("parish_st_number", 10, false),
+            Column.text("parish_st_name", 255, false),
+            Column.text("parish_suburb", 255, false),
+            Column.text("parish_postcode", 10, false),
+            Column.text("parish_phone", 20, false),
+            Column.text("parish_email", 255, false),
+            Column.text("parish_website", 255, false),
+            Column.id("diocese_id"),
+            Column.id("state_id"),
+            new Column("parish_latitude", ColumnType.DOUBLE, 0, false),
+            new Column("parish_longitude", ColumnType.DOUBLE, 0, false))),
+    ADORATIONS("adorations", DirectoryAggregate.ADORATION, List.of(
+            Column.id("state_id"),
+            Column.id("diocese_id"),
+            Column.id("parish_id"),
+            Column.text("adoration_type", 255, true),
+            Column.text("adoration_location", 255, false),
+            Column.text("adoration_location_type", 255, false),
+            Column.text("adoration_day", 50, false),
+            Column.time("adoration_start"),
+            Column.time("adoration_end"))),
+    CRUSADES("crusades", DirectoryAggregate.CRUSADE, List.of(
+            Column.id("state_id"),
+            Column.id("diocese_id"),
+            Column.id("parish_id"),
+            Column.time("confession_start_time"),
+            Column.time("confession_end_time"),
+            Column.time("mass_start_time"),
+            Column.time("mass_end_time"),
+            Column.time("crusade_start_time"),
+            Column.time("crusade_end_time"),
+            Column.text("contact_name", 255, false),
+            Column.text("contact_phone", 20, false),
+            Column.text("contact_email", 255, false),
+            Column.text("comments", 0, false)));
+
+    public enum ColumnType { TEXT, BIGINT, DOUBLE, TIME }
+
+    /**
+     * A table column; {@code maxLength} is 0 for unbounded text and for non-text types.
+     */
+    public record Column(String name, ColumnType type, int maxLength, boolean required) {
+        static Column text(String name, int maxLength, boolean required) {
+            return new Column(name, ColumnType.TEXT, maxLength, required);
+        }
+
+        static Column id(String name) {
+            return new Column(name, ColumnType.BIGINT, 0, true);
+        }
+
+        static Column time(String name) {
+            return new Column(name, ColumnType.TIME, 0, false);
+        }
+
+        /**
+         * The name an input field must normalize to.
+         */
+        String field() {
+            return ImportRowReader.normalizeName(name);
+        }
+    }
+
+    private final String table;
+    private final DirectoryAggregate aggregate;
+    private final List<Column> columns;
+
+    ImportKind(String table, DirectoryAggregate aggregate, List<Column> columns) {
+        this.table = table;
+        this.aggregate = aggregate;
+        this.columns = columns;
+    }
+
+    public String table() {
+        return table;
+    }
+
+    public DirectoryAggregate aggregate() {
+        return aggregate;
+    }
+
+    public List<Column> columns() {
+        return columns;
+    }
+
+    int indexOf(String column) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).name().equals(column)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException(table + " has no column " + column);
+    }
+
+    /**
+     * The kind named in an import URL, e.g. "parishes".
+     */
+    public static Optional<ImportKind> fromPath(String path) {
+        for (ImportKind kind : values()) {
+            if (kind.table.equals(path.toLowerCase(Locale.ROOT))) {
+                return Optional.of(kind);
+            }
+        }
+        return Optional.empty();
+    }
+}
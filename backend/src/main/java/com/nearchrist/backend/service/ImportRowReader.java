@@ -0,0 +1,191 @@
+package com.nearchrist.backend.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads an import body one record at a time, as CSV with a header row or as a JSON array of
+ * objects. Field names are compared without case, spaces or punctuation, so "parishName",
+ * "parish_name" and "Parish Name" all name the same field. Empty cells and JSON nulls read as null.
+ */
+abstract class ImportRowReader implements Closeable {
+
+    /**
+     * One input record; {@code problem} is set instead of failing the import when just this record is unusable.
+     */
+    record RawRow(int row, Map<String, String> fields, String problem) {}
+
+    /**
+     * The next record, or null at the end of the input.
+     */
+    abstract RawRow next() throws IOException;
+
+    static ImportRowReader csv(InputStream in) throws IOException {
+        return new Csv(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024));
+    }
+
+    static ImportRowReader json(InputStream in, ObjectMapper objectMapper) throws IOException {
+        return new Json(objectMapper.getFactory().createParser(in), objectMapper);
+    }
+
+    static String normalizeName(String name) {
+        StringBuilder normalized = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static final class Csv extends ImportRowReader {
+        private final Reader reader;
+        private final List<String> header;
+        private int row;
+
+        Csv(Reader reader) throws IOException {
+            this.reader = reader;
+            reader.mark(1);
+            // Spreadsheet exports often start with a byte order mark
+            if (reader.read() != '\uFEFF') {
+                reader.reset();
+            }
+            List<String> names = record();
+            if (names == null) {
+                throw new IllegalArgumentException("The CSV body is empty; the first line must name the columns");
+            }
+            this.header = names.stream().map(name -> name == null ? "" : normalizeName(name)).toList();
+        }
+
+        @Override
+        RawRow next() throws IOException {
+            List<String> cells;
+            do {
+                cells = record();
+                if (cells == null) {
+                    return null;
+                }
+            } while (cells.size() == 1 && cells.get(0) == null);
+            row++;
+            if (cells.size() > header.size()) {
+                return new RawRow(row, Map.of(), "Has " + cells.size() + " cells but the header names " + header.size() + " columns");
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < cells.size(); i++) {
+                fields.put(header.get(i), cells.get(i));
+            }
+            return new RawRow(row, fields, null);
+        }
+
+        // One RFC 4180 record: quoted cells may hold commas, doubled quotes and line breaks
+        private List<String> record() throws IOException {
+            int c = reader.read();
+            if (c < 0) {
+                return null;
+            }
+            List<String> cells = new ArrayList<>();
+            StringBuilder cell = new StringBuilder();
+            boolean quoted = false;
+            boolean wasQuoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c < 0) {
+                        throw new IllegalArgumentException("Unterminated quoted cell in CSV record " + (row + 1));
+                    }
+                    if (c == '"') {
+                        reader.mark(1);
+                        if (reader.read() == '"') {
+                            cell.append('"');
+                        } else {
+                            reader.reset();
+                            quoted = false;
+                        }
+                    } else {
+                        cell.append((char) c);
+                    }
+                } else if (c == '"' && cell.isEmpty()) {
+                    quoted = true;
+                    wasQuoted = true;
+                } else if (c == ',' || c == '\n' || c == '\r' || c < 0) {
+                    cells.add(cell.isEmpty() && !wasQuoted ? null : cell.toString());
+                    if (c != ',') {
+                        if (c == '\r') {
+                            reader.mark(1);
+                            if (reader.read() != '\n') {
+                                reader.reset();
+                            }
+                        }
+                        return cells;
+                    }
+                    cell.setLength(0);
+                    wasQuoted = false;
+                } else {
+                    cell.append((char) c);
+                }
+                c = reader.read();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static final class Json extends ImportRowReader {
+        private final JsonParser parser;
+        private int row;
+
+        Json(JsonParser parser, ObjectMapper objectMapper) throws IOException {
+            this.parser = parser;
+            parser.setCodec(objectMapper);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("The JSON body must be an array of objects");
+            }
+        }
+
+        @Override
+        RawRow next() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            row++;
+            JsonNode node = parser.readValueAsTree();
+            if (!node.isObject()) {
+                return new RawRow(row, Map.of(), "Is not a JSON object");
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = it.next();
+                JsonNode value = field.getValue();
+                if (value.isContainerNode()) {
+                    return new RawRow(row, Map.of(), "Field " + field.getKey() + " must be a single value");
+                }
+                fields.put(normalizeName(field.getKey()), value.isNull() ? null : value.asText());
+            }
+            return new RawRow(row, fields, null);
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package com.nearchrist.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nearchrist.backend.dto.ImportErrorDto;
+import com.nearchrist.backend.dto.ImportResultDto;
+import com.nearchrist.backend.dto.ParishDto;
+import com.nearchrist.backend.dto.StateDto;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk loads parishes, adorations or crusades from a CSV or JSON body.
+ * <p>
+ * The body is read as a stream, in chunks that are validated in parallel against the read model
+ * (required fields, lengths, types and the states, dioceses and parishes rows refer to). Chunks are
+ * then taken back in file order to catch rows that repeat an earlier row or an existing record,
+ * and valid rows go straight into a temporary staging table over the PostgreSQL COPY protocol. Only
+ * when every row is valid are they merged into the real table, with one INSERT in the same
+ * transaction; otherwise nothing is imported and the result lists what to fix.
+ */
+@Service
+public class ImportService {
+    private static final Logger log = LoggerFactory.getLogger(ImportService.class);
+
+    private static final int CHUNK_ROWS = 1_000;
+    private static final int MAX_LISTED_ERRORS = 100;
+
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+    private final DirectoryReadModel readModel;
+    private final PostcodeCentroids centroids;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher events;
+    private final int validators = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private final ExecutorService validator = Executors.newFixedThreadPool(validators, runnable -> {
+        Thread thread = new Thread(runnable, "directory-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ImportService(DataSource dataSource, PlatformTransactionManager transactionManager, DirectoryReadModel readModel,
+                         PostcodeCentroids centroids, ObjectMapper objectMapper, ApplicationEventPublisher events) {
+        this.dataSource = dataSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readModel = readModel;
+        this.centroids = centroids;
+        this.objectMapper = objectMapper;
+        this.events = events;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        validator.shutdownNow();
+    }
+
+    public ImportResultDto importCsv(ImportKind kind, InputStream body) {
+        return importRows(kind, () -> ImportRowReader.csv(body));
+    }
+
+    public ImportResultDto importJson(ImportKind kind, InputStream body) {
+        return importRows(kind, () -> ImportRowReader.json(body, objectMapper));
+    }
+
+    private interface ReaderFactory {
+        ImportRowReader open() throws IOException;
+    }
+
+    private ImportResultDto importRows(ImportKind kind, ReaderFactory factory) {
+        long started = System.nanoTime();
+        ImportResultDto result = transactionTemplate.execute(status -> {
+            try (ImportRowReader reader = factory.open()) {
+                return new Run(kind, readModel.current()).execute(reader, status, started);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (SQLException e) {
+                if (e.getSQLState() != null && e.getSQLState().startsWith("23")) {
+                    // The read model lagged behind a concurrent delete
+                    throw new IllegalArgumentException("Rows refer to records that changed during the import: " + e.getMessage());
+                }
+                throw new IllegalStateException("Import into " + kind.table() + " failed", e);
+            }
+        });
+        log.info("Import into {}: {} received, {} imported, {} rejected in {} ms ({} rows/s)", kind.table(),
+                result.received(), result.imported(), result.rejected(), result.elapsedMs(), result.rowsPerSecond());
+        return result;
+    }
+
+    // One row after validation: the column values ready for COPY, or why the row was rejected
+    private record Validated(int row, String error, String key, byte[] copyLine) {}
+
+    /**
+     * The state of one import: the staging COPY, the keys seen so far and the errors.
+     */
+    private final class Run {
+        private final ImportKind kind;
+        private final DirectorySnapshot snapshot;
+        private final String staging;
+        private final String columnList;
+        // Duplicate keys of existing records, to the id that holds them
+        private final Map<String, Long> existing;
+        private final Map<String, Integer> seen = new HashMap<>();
+        private final List<ImportErrorDto> errors = new ArrayList<>();
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+        private int received;
+        private int rejected;
+        private CopyIn copy;
+
+        Run(ImportKind kind, DirectorySnapshot snapshot) {
+            this.kind = kind;
+            this.snapshot = snapshot;
+            this.staging = "import_" + kind.table();
+            this.columnList = kind.columns().stream().map(ImportKind.Column::name).collect(Collectors.joining(", "));
+            this.existing = existingKeys(kind, snapshot);
+        }
+
+        ImportResultDto execute(ImportRowReader reader, TransactionStatus status, long started) throws IOException, SQLException {
+            Connection connection = DataSourceUtils.getConnection(dataSource);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TEMP TABLE " + staging + " ON COMMIT DROP AS SELECT 0 AS row_no, "
+                        + columnList + " FROM " + kind.table() + " WITH NO DATA");
+            }
+            copy = connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn("COPY " + staging + " (row_no, " + columnList + ") FROM STDIN WITH (FORMAT csv)");
+            ArrayDeque<Future<List<Validated>>> pending = new ArrayDeque<>();
+            try {
+                List<ImportRowReader.RawRow> chunk = new ArrayList<>(CHUNK_ROWS);
+                ImportRowReader.RawRow raw;
+                while ((raw = reader.next()) != null) {
+                    received++;
+                    chunk.add(raw);
+                    if (chunk.size() == CHUNK_ROWS) {
+                        pending.add(submit(chunk));
+                        chunk = new ArrayList<>(CHUNK_ROWS);
+                        // Bounded, so a large body is never held in memory at once
+                        if (pending.size() > 2 * validators) {
+                            accept(pending.poll());
+                        }
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    pending.add(submit(chunk));
+                }
+                while (!pending.isEmpty()) {
+                    accept(pending.poll());
+                }
+                copy.endCopy();
+            } finally {
+                pending.forEach(future -> future.cancel(true));
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            }
+
+            int imported = 0;
+            if (rejected > 0) {
+                status.setRollbackOnly();
+            } else if (received > 0) {
+                try (Statement statement = connection.createStatement()) {
+                    imported = statement.executeUpdate("INSERT INTO " + kind.table() + " (" + columnList + ") SELECT "
+                            + columnList + " FROM " + staging + " ORDER BY row_no");
+                }
+                events.publishEvent(new DirectoryChangedEvent(kind.aggregate()));
+            }
+            long elapsedMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+            return new ImportResultDto(received, imported, rejected, List.copyOf(errors), elapsedMs, received * 1000L / elapsedMs);
+        }
+
+        private Future<List<Validated>> submit(List<ImportRowReader.RawRow> chunk) {
+            return validator.submit(() -> chunk.stream().map(this::validate).toList());
+        }
+
+        // Back on the request thread, in file order
+        private void accept(Future<List<Validated>> future) throws SQLException {
+            List<Validated> rows;
+            try {
+                rows = future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Import interrupted", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException("Import validation failed", e.getCause());
+            }
+            buffer.reset();
+            for (Validated row : rows) {
+                String error = row.error();
+                if (error == null) {
+                    Long id = existing.get(row.key());
+                    Integer earlier = seen.putIfAbsent(row.key(), row.row());
+                    if (id != null) {
+                        error = "Repeats existing " + singular(kind) + " " + id;
+                    } else if (earlier != null) {
+                        error = "Repeats row " + earlier;
+                    }
+                }
+                if (error != null) {
+                    rejected++;
+                    if (errors.size() < MAX_LISTED_ERRORS) {
+                        errors.add(new ImportErrorDto(row.row(), error));
+                    }
+                } else if (rejected == 0) {
+                    // Once a row is rejected nothing is imported, so the rest are only checked
+                    buffer.writeBytes(row.copyLine());
+                }
+            }
+            if (rejected == 0 && buffer.size() > 0) {
+                copy.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+            }
+        }
+
+        private Validated validate(ImportRowReader.RawRow raw) {
+            if (raw.problem() != null) {
+                return new Validated(raw.row(), raw.problem(), null, null);
+            }
+            List<String> problems = new ArrayList<>();
+            List<ImportKind.Column> columns = kind.columns();
+            Set<String> known = columns.stream().map(ImportKind.Column::field).collect(Collectors.toSet());
+            raw.fields().keySet().stream()
+                    .filter(field -> !known.contains(field))
+                    .sorted()
+                    .forEach(field -> problems.add("Unknown field " + field));
+
+            Object[] values = new Object[columns.size()];
+            for (int i = 0; i < columns.size(); i++) {
+                values[i] = parse(columns.get(i), raw.fields().get(columns.get(i).field()), problems);
+            }
+            if (problems.isEmpty()) {
+                checkReferences(values, problems);
+            }
+            if (!problems.isEmpty()) {
+                return new Validated(raw.row(), String.join("; ", problems), null, null);
+            }
+            return new Validated(raw.row(), null, rowKey(kind, values), copyLine(raw.row(), values));
+        }
+
+        private static Object parse(ImportKind.Column column, String text, List<String> problems) {
+            String value = text == null ? null : text.trim();
+            if (value == null || value.isEmpty()) {
+                if (column.required()) {
+                    problems.add(column.name() + " is required");
+                }
+                return null;
+            }
+            try {
+                return switch (column.type()) {
+                    case TEXT -> {
+                        if (column.maxLength() > 0 && value.length() > column.maxLength()) {
+                            problems.add(column.name() + " is longer than " + column.maxLength() + " characters");
+                        }
+                        yield value;
+                    }
+                    case BIGINT -> Long.parseLong(value);
+                    case DOUBLE -> {
+                        double number = Double.parseDouble(value);
+                        if (!Double.isFinite(number)) {
+                            throw new NumberFormatException(value);
+                        }
+                        yield number;
+                    }
+                    // 9:30 as well as 09:30 and 09:30:00
+                    case TIME -> LocalTime.parse(value.indexOf(':') == 1 ? "0" + value : value);
+                };
+            } catch (NumberFormatException e) {
+                problems.add(column.name() + " must be a number");
+            } catch (DateTimeParseException e) {
+                problems.add(column.name() + " must be a time such as 09:30");
+            }
+            return null;
+        }
+
+        private void checkReferences(Object[] values, List<String> problems) {
+            Long stateId = (Long) values[kind.indexOf("state_id")];
+            Long dioceseId = (Long) values[kind.indexOf("diocese_id")];
+            if (snapshot.state(stateId).isEmpty()) {
+                problems.add("State with ID " + stateId + " does not exist");
+            }
+            if (snapshot.diocese(dioceseId).isEmpty()) {
+                problems.add("Diocese with ID " + dioceseId + " does not exist");
+            }
+            if (kind != ImportKind.PARISHES) {
+                Long parishId = (Long) values[kind.indexOf("parish_id")];
+                Optional<ParishDto> parish = snapshot.parish(parishId);
+                if (parish.isEmpty()) {
+                    problems.add("Parish with ID " + parishId + " does not exist");
+                } else if (!dioceseId.equals(parish.get().dioceseId())) {
+                    // As DirectoryReferenceChecks rejects it for a single write
+                    problems.add("Parish with ID " + parishId + " does not belong to Diocese with ID " + dioceseId);
+                }
+                return;
+            }
+            int latitude = kind.indexOf("parish_latitude");
+            int longitude = kind.indexOf("parish_longitude");
+            if (values[latitude] != null || values[longitude] != null) {
+                if (values[latitude] == null || values[longitude] == null) {
+                    problems.add("Parish latitude and longitude must be given together");
+                } else if (Math.abs((Double) values[latitude]) > 90 || Math.abs((Double) values[longitude]) > 180) {
+                    problems.add("Latitude must be between -90 and 90 and longitude between -180 and 180");
+                }
+                return;
+            }
+            // Placed at the centroid of its locality, as a parish created one at a time would be
+            String state = snapshot.state(stateId).map(StateDto::stateAbbreviation).orElse(null);
+            centroids.locate((String) values[kind.indexOf("parish_postcode")], (String) values[kind.indexOf("parish_suburb")], state)
+                    .ifPresent(centroid -> {
+                        values[latitude] = centroid.latitude();
+                        values[longitude] = centroid.longitude();
+                    });
+        }
+
+        // A line of COPY csv: nulls are empty and unquoted, text is always quoted so "" stays an empty string
+        private byte[] copyLine(int row, Object[] values) {
+            StringBuilder line = new StringBuilder(256).append(row);
+            for (Object value : values) {
+                line.append(',');
+                if (value instanceof String text) {
+                    line.append('"').append(text.replace("\"", "\"\"")).append('"');
+                } else if (value != null) {
+                    line.append(value);
+                }
+            }
+            return line.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    // What makes two rows the same record: the same parish named twice, or the same session at the same parish
+    private static String rowKey(ImportKind kind, Object[] values) {
+        return switch (kind) {
+            case PARISHES -> key(values[kind.indexOf("parish_name")], values[kind.indexOf("parish_suburb")],
+                    values[kind.indexOf("parish_postcode")], values[kind.indexOf("diocese_id")]);
+            case ADORATIONS -> key(values[kind.indexOf("parish_id")], values[kind.indexOf("adoration_type")],
+                    values[kind.indexOf("adoration_day")], values[kind.indexOf("adoration_start")],
+                    values[kind.indexOf("adoration_end")], values[kind.indexOf("adoration_location")]);
+            case CRUSADES -> key(values[kind.indexOf("parish_id")],
+                    values[kind.indexOf("confession_start_time")], values[kind.indexOf("confession_end_time")],
+                    values[kind.indexOf("mass_start_time")], values[kind.indexOf("mass_end_time")],
+                    values[kind.indexOf("crusade_start_time")], values[kind.indexOf("crusade_end_time")],
+                    values[kind.indexOf("contact_name")]);
+        };
+    }
+
+    private static Map<String, Long> existingKeys(ImportKind kind, DirectorySnapshot snapshot) {
+        Map<String, Long> keys = new HashMap<>();
+        switch (kind) {
+            case PARISHES -> snapshot.parishes().forEach(p -> keys.putIfAbsent(
+                    key(p.parishName(), p.parishSuburb(), p.parishPostcode(), p.dioceseId()), p.parishId()));
+            case ADORATIONS -> snapshot.adorations(null, null, null).forEach(a -> keys.putIfAbsent(
+                    key(a.parishId(), a.adorationType(), a.adorationDay(), a.adorationStart(), a.adorationEnd(),
+                            a.adorationLocation()), a.adorationId()));
+            case CRUSADES -> snapshot.crusades(null, null, null).forEach(c -> keys.putIfAbsent(
+                    key(c.parishId(), c.confessionStartTime(), c.confessionEndTime(), c.massStartTime(), c.massEndTime(),
+                            c.crusadeStartTime(), c.crusadeEndTime(), c.contactName()), c.crusadeId()));
+        }
+        return keys;
+    }
+
+    private static String key(Object... parts) {
+        StringBuilder key = new StringBuilder();
+        for (Object part : parts) {
+            if (part instanceof String text) {
+                key.append(text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT));
+            } else if (part != null) {
+                key.append(part);
+            }
+            key.append('\u001f');
+        }
+        return key.toString();
+    }
+
+    private static String singular(ImportKind kind) {
+        return switch (kind) {
+            case PARISHES -> "parish";
+            case ADORATIONS -> "adoration";
+            case CRUSADES -> "crusade";
+        };
+    }
+}
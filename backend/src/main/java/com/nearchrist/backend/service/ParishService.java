@@ -1,77 +1,249 @@
 package com.nearchrist.backend.service;
 
+import com.nearchrist.backend.dto.BatchRequestDto;
+import com.nearchrist.backend.dto.BatchResultDto;
+import com.nearchrist.backend.dto.KeysetCursor;
+import com.nearchrist.backend.dto.KeysetPage;
+import com.nearchrist.backend.dto.NearbyParishDto;
 import com.nearchrist.backend.dto.ParishDto;
 import com.nearchrist.backend.dto.ParishUpsertDto;
 import com.nearchrist.backend.entity.Parish;
 import com.nearchrist.backend.mapper.ParishMapper;
 import com.nearchrist.backend.repository.DioceseRepository;
+import com.nearchrist.backend.repository.DirectoryReferences;
 import com.nearchrist.backend.repository.ParishRepository;
+import com.nearchrist.backend.repository.StateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
 public class ParishService {
+    private static final Logger log = LoggerFactory.getLogger(ParishService.class);
+    private static final int MAX_NEAREST = 100;
+    private static final String REFERENCED = "Cannot delete Parish because it is referenced by other records";
+
     private final ParishRepository repository;
     private final DioceseRepository dioceseRepository;
+    private final StateRepository stateRepository;
     private final ParishMapper mapper;
+    private final PostcodeCentroids centroids;
+    private final DirectoryReadModel readModel;
+    private final ApplicationEventPublisher events;
 
-    public ParishService(ParishRepository repository, DioceseRepository dioceseRepository, ParishMapper mapper) {
+    public ParishService(ParishRepository repository, DioceseRepository dioceseRepository, StateRepository stateRepository,
+                         ParishMapper mapper, PostcodeCentroids centroids, DirectoryReadModel readModel,
+                         ApplicationEventPublisher events) {
         this.repository = repository;
         this.dioceseRepository = dioceseRepository;
+        this.stateRepository = stateRepository;
         this.mapper = mapper;
+        this.centroids = centroids;
+        this.readModel = readModel;
+        this.events = events;
+    }
+
+    /**
+     * ETag of every parish read served right now; read it before building the response body.
+     */
+    public String currentETag() {
+        return readModel.current().etag(DirectoryAggregate.PARISH);
     }
 
-    @Transactional(readOnly = true)
     public List<ParishDto> getAllParishes() {
-        return mapper.toDtoList(repository.findAll());
+        return readModel.current().parishes();
+    }
+
+    public KeysetPage<ParishDto> getParishPage(String sort, String after, Integer limit) {
+        KeysetPage.checkLimit(limit);
+        KeysetCursor cursor = KeysetCursor.parse(sort, after, KeysetCursor.SORT_ID, KeysetCursor.SORT_NAME);
+        boolean byName = KeysetCursor.SORT_NAME.equals(sort);
+        DirectorySnapshot snapshot = readModel.current();
+        return KeysetPage.slice(byName ? snapshot.parishesByName() : snapshot.parishes(), limit,
+                dto -> cursor.isBefore(byName ? dto.parishName() : "", dto.parishId()),
+                dto -> new KeysetCursor(sort, byName ? dto.parishName() : "", dto.parishId()));
     }
 
-    @Transactional(readOnly = true)
     public Optional<ParishDto> getParishById(Long id) {
-        return repository.findById(id).map(mapper::toDto);
+        return readModel.current().parish(id);
+    }
+
+    /**
+     * The {@code limit} parishes closest to the given point, nearest first, each with its adorations and crusades.
+     */
+    public List<NearbyParishDto> getNearestParishes(double latitude, double longitude, int limit) {
+        checkCoordinates(latitude, longitude);
+        if (limit < 1 || limit > MAX_NEAREST) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_NEAREST);
+        }
+        DirectorySnapshot snapshot = readModel.current();
+        return snapshot.parishIndex().nearest(latitude, longitude, limit).stream()
+                .map(n -> new NearbyParishDto(n.parish(), n.distanceKm(),
+                        snapshot.adorations(null, null, n.parish().parishId()),
+                        snapshot.crusades(null, null, n.parish().parishId())))
+                .toList();
     }
 
     @Transactional
     public ParishDto createParish(ParishUpsertDto dto) {
-        if (dto.dioceseId() == null || dto.parishName() == null || dto.stateId() == null) {
-            throw new IllegalArgumentException("Diocese ID, Parish Name, and State ID are required");
-        }
-        if (!dioceseRepository.existsById(dto.dioceseId())) {
-            throw new IllegalArgumentException("Diocese with ID " + dto.dioceseId() + " does not exist");
-        }
-        Parish entity = mapper.toEntity(dto);
-        return mapper.toDto(repository.save(entity));
+        DirectoryReferences references = checkReferences(dto, null);
+        Parish entity = new Parish();
+        write(entity, dto, references);
+        DirectoryReferenceChecks.flush(repository, "Parish", dto.stateId(), dto.dioceseId(), null);
+        events.publishEvent(new DirectoryChangedEvent(DirectoryAggregate.PARISH));
+        return toDto(entity, dto, references);
     }
 
+    /**
+     * @param expectedVersion the version the client read, from If-Match or the body; null to update
+     *                        whatever the current version is
+     */
     @Transactional
-    public Optional<ParishDto> updateParish(Long id, ParishUpsertDto dto) {
-        if (dto.dioceseId() == null || dto.parishName() == null || dto.stateId() == null) {
-            throw new IllegalArgumentException("Diocese ID, Parish Name, and State ID are required");
-        }
-        if (!dioceseRepository.existsById(dto.dioceseId())) {
-            throw new IllegalArgumentException("Diocese with ID " + dto.dioceseId() + " does not exist");
-        }
+    public Optional<ParishDto> updateParish(Long id, ParishUpsertDto dto, Long expectedVersion) {
+        DirectoryReferences references = checkReferences(dto, null);
         return repository.findById(id)
                 .map(entity -> {
-                    Parish updated = mapper.toEntity(dto);
-                    updated.setParishId(id);
-                    return mapper.toDto(repository.save(updated));
+                    DirectoryVersions.check("Parish", id, entity.getParishVersion(), expectedVersion);
+                    write(entity, dto, references);
+                    DirectoryReferenceChecks.flush(repository, "Parish", dto.stateId(), dto.dioceseId(), null);
+                    events.publishEvent(new DirectoryChangedEvent(DirectoryAggregate.PARISH));
+                    return toDto(entity, dto, references);
                 });
     }
 
     @Transactional
     public boolean deleteParish(Long id) {
-        if (!repository.existsById(id)) {
+        Optional<Parish> entity = repository.findById(id);
+        if (entity.isEmpty()) {
             return false;
         }
+        if (!repository.findReferencedIds(List.of(id)).isEmpty()) {
+            throw new IllegalStateException(REFERENCED);
+        }
         try {
-            repository.deleteById(id);
+            repository.delete(entity.get());
+            // Flushed here, so a reference added since the check fails on the foreign key now rather than at commit
+            repository.flush();
+            events.publishEvent(new DirectoryChangedEvent(DirectoryAggregate.PARISH));
             return true;
         } catch (org.springframework.dao.DataIntegrityViolationException e) {
-            throw new IllegalStateException("Cannot delete Parish because it is referenced by other records");
+            throw new IllegalStateException(REFERENCED);
+        }
+    }
+
+    /**
+     * Places parishes saved before coordinates existed, or whose address had no centroid at the time.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void fillMissingLocations() {
+        int located = 0;
+        List<Parish> missing = repository.findByParishLatitudeIsNullOrParishLongitudeIsNull();
+        for (Parish parish : missing) {
+            String state = parish.getState() == null ? null : parish.getState().getStateAbbreviation();
+            Optional<PostcodeCentroids.Centroid> centroid = centroids.locate(parish.getParishPostcode(), parish.getParishSuburb(), state);
+            if (centroid.isPresent()) {
+                parish.setParishLatitude(centroid.get().latitude());
+                parish.setParishLongitude(centroid.get().longitude());
+                located++;
+            }
+        }
+        if (located > 0) {
+            events.publishEvent(new DirectoryChangedEvent(DirectoryAggregate.PARISH));
+        }
+        if (located < missing.size()) {
+            log.warn("{} parishes have no coordinates and no matching locality centroid", missing.size() - located);
+        }
+    }
+
+    /**
+     * Creates, updates and deletes parishes in one transaction; nothing is written unless every item
+     * is valid. Deleting a parish that adorations or crusades still refer to rejects that item with 409.
+     */
+    @Transactional
+    public BatchResultDto<ParishDto> applyBatch(BatchRequestDto<ParishUpsertDto> batch) {
+        Map<List<Long>, DirectoryReferences> checked = new HashMap<>();
+        BatchResultDto<ParishDto> result = DirectoryBatches.apply(batch, repository, "Parish",
+                DirectoryBatches.writer(Parish::new, Parish::getParishId, Parish::getParishVersion, ParishUpsertDto::parishVersion,
+                        dto -> checkReferences(dto, checked), this::write, this::toDto,
+                        ids -> new HashSet<>(repository.findReferencedIds(ids))));
+        if (result.applied() && !result.items().isEmpty()) {
+            events.publishEvent(new DirectoryChangedEvent(DirectoryAggregate.PARISH));
+        }
+        return result;
+    }
+
+    // checked: references already read in this transaction, or null to always query
+    private DirectoryReferences checkReferences(ParishUpsertDto dto, Map<List<Long>, DirectoryReferences> checked) {
+        if (dto.dioceseId() == null || dto.parishName() == null || dto.stateId() == null) {
+            throw new IllegalArgumentException("Diocese ID, Parish Name, and State ID are required");
+        }
+        DirectoryReferences references = checked == null
+                ? DirectoryReferenceChecks.check(repository, dto.stateId(), dto.dioceseId(), null)
+                : DirectoryReferenceChecks.check(repository, checked, dto.stateId(), dto.dioceseId(), null);
+        if (dto.parishLatitude() != null || dto.parishLongitude() != null) {
+            if (dto.parishLatitude() == null || dto.parishLongitude() == null) {
+                throw new IllegalArgumentException("Parish latitude and longitude must be given together");
+            }
+            checkCoordinates(dto.parishLatitude(), dto.parishLongitude());
+        }
+        return references;
+    }
+
+    // Inserts or updates in place without flushing; the references are proxies, so nothing is read
+    private void write(Parish entity, ParishUpsertDto dto, DirectoryReferences references) {
+        // An update that leaves the address alone keeps the current coordinates
+        PostcodeCentroids.Centroid current = entity.getParishId() != null
+                && entity.getParishLatitude() != null && entity.getParishLongitude() != null
+                && Objects.equals(entity.getParishPostcode(), dto.parishPostcode())
+                && Objects.equals(entity.getParishSuburb(), dto.parishSuburb())
+                ? new PostcodeCentroids.Centroid(entity.getParishLatitude(), entity.getParishLongitude())
+                : null;
+        mapper.updateEntity(dto, entity);
+        entity.setDiocese(dioceseRepository.getReferenceById(dto.dioceseId()));
+        entity.setState(stateRepository.getReferenceById(dto.stateId()));
+        locate(entity, dto, current, references.getStateAbbreviation());
+        repository.save(entity);
+    }
+
+    // After the flush, so the id and version are those written; the names come from the reference check
+    private ParishDto toDto(Parish entity, ParishUpsertDto dto, DirectoryReferences references) {
+        return new ParishDto(entity.getParishId(), entity.getParishName(), entity.getParishStNumber(),
+                entity.getParishStName(), entity.getParishSuburb(), entity.getParishPostcode(), entity.getParishPhone(),
+                entity.getParishEmail(), entity.getParishWebsite(), dto.dioceseId(), references.getDioceseName(),
+                dto.stateId(), references.getStateAbbreviation(), entity.getParishLatitude(), entity.getParishLongitude(),
+                entity.getParishVersion());
+    }
+
+    // Explicit coordinates (checked with the references) win; then the current ones, when the
+    // address is unchanged; otherwise fall back to the centroid of the parish's locality
+    private void locate(Parish entity, ParishUpsertDto dto, PostcodeCentroids.Centroid current, String stateAbbreviation) {
+        if (dto.parishLatitude() != null) {
+            return;
+        }
+        Optional<PostcodeCentroids.Centroid> centroid = current != null
+                ? Optional.of(current)
+                : centroids.locate(dto.parishPostcode(), dto.parishSuburb(), stateAbbreviation);
+        centroid.ifPresent(located -> {
+            entity.setParishLatitude(located.latitude());
+            entity.setParishLongitude(located.longitude());
+        });
+    }
+
+    private static void checkCoordinates(double latitude, double longitude) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Latitude must be between -90 and 90 and longitude between -180 and 180");
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,105 @@
+package com.nearchrist.backend.service;
+
+import com.nearchrist.backend.dto.ParishDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * KD-tree over the parishes of one {@link DirectorySnapshot} that have coordinates. Points are
+ * stored as unit vectors, where straight-line (chord) distance orders exactly like great-circle
+ * distance, so the tree needs no special handling for the antimeridian or the poles. The tree is
+ * implicit: the median of each range is its root, split on x, y and z in turn.
+ */
+final class ParishSpatialIndex {
+    static final double EARTH_RADIUS_KM = 6371.0088;
+
+    record Neighbour(ParishDto parish, double distanceKm) {}
+
+    private record Point(double[] xyz, ParishDto parish) {}
+
+    private record Candidate(int node, double squaredDistance) {}
+
+    private final double[] coordinates;
+    private final ParishDto[] parishes;
+
+    ParishSpatialIndex(List<ParishDto> all) {
+        Point[] points = all.stream()
+                .filter(p -> p.parishLatitude() != null && p.parishLongitude() != null)
+                .map(p -> new Point(unitVector(p.parishLatitude(), p.parishLongitude()), p))
+                .toArray(Point[]::new);
+        build(points, 0, points.length, 0);
+        this.coordinates = new double[points.length * 3];
+        this.parishes = new ParishDto[points.length];
+        for (int i = 0; i < points.length; i++) {
+            System.arraycopy(points[i].xyz(), 0, coordinates, i * 3, 3);
+            parishes[i] = points[i].parish();
+        }
+    }
+
+    /**
+     * Up to {@code k} parishes nearest to the given point, closest first.
+     */
+    List<Neighbour> nearest(double latitude, double longitude, int k) {
+        double[] query = unitVector(latitude, longitude);
+        // Max-heap on squared chord length, so the worst of the current best k is on top
+        PriorityQueue<Candidate> best = new PriorityQueue<>(k + 1,
+                Comparator.comparingDouble(Candidate::squaredDistance).reversed());
+        search(0, parishes.length, 0, query, k, best);
+
+        List<Neighbour> result = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            Candidate candidate = best.poll();
+            double chord = Math.sqrt(candidate.squaredDistance());
+            result.add(new Neighbour(parishes[candidate.node()], 2 * Math.asin(Math.min(1, chord / 2)) * EARTH_RADIUS_KM));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private void search(int low, int high, int axis, double[] query, int k, PriorityQueue<Candidate> best) {
+        if (low >= high) {
+            return;
+        }
+        int node = (low + high) >>> 1;
+        best.add(new Candidate(node, squaredDistance(node, query)));
+        if (best.size() > k) {
+            best.poll();
+        }
+        double difference = query[axis] - coordinates[node * 3 + axis];
+        int nextAxis = (axis + 1) % 3;
+        boolean lowFirst = difference < 0;
+        search(lowFirst ? low : node + 1, lowFirst ? node : high, nextAxis, query, k, best);
+        // The far side can only hold a closer point if the splitting plane is nearer than the current worst
+        if (best.size() < k || difference * difference < best.peek().squaredDistance()) {
+            search(lowFirst ? node + 1 : low, lowFirst ? high : node, nextAxis, query, k, best);
+        }
+    }
+
+    private double squaredDistance(int node, double[] query) {
+        double dx = coordinates[node * 3] - query[0];
+        double dy = coordinates[node * 3 + 1] - query[1];
+        double dz = coordinates[node * 3 + 2] - query[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private static void build(Point[] points, int low, int high, int axis) {
+        if (high - low <= 1) {
+            return;
+        }
+        Arrays.sort(points, low, high, Comparator.comparingDouble(point -> point.xyz()[axis]));
+        int median = (low + high) >>> 1;
+        build(points, low, median, (axis + 1) % 3);
+        build(points, median + 1, high, (axis + 1) % 3);
+    }
+
+    private static double[] unitVector(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        return new double[]{Math.cos(lat) * Math.cos(lon), Math.cos(lat) * Math.sin(lon), Math.sin(lat)};
+    }
+}
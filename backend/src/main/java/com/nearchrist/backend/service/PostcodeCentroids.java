@@ -0,0 +1,74 @@
+package com.nearchrist.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Offline locality centroids (postcode, locality, state, latitude, longitude) loaded once from a
+ * bundled CSV, used to place parishes that were saved without coordinates of their own.
+ */
+@Component
+public class PostcodeCentroids {
+
+    public record Centroid(double latitude, double longitude) {}
+
+    private final Map<String, Centroid> byPostcodeAndLocality = new HashMap<>();
+    private final Map<String, Centroid> byPostcode = new HashMap<>();
+    private final Map<String, Centroid> byLocalityAndState = new HashMap<>();
+
+    public PostcodeCentroids(@Value("${geo.postcode-centroids:classpath:geo/postcode-centroids.csv}") Resource dataset) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(dataset.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#") || line.startsWith("postcode,")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                if (fields.length != 5) {
+                    throw new IllegalStateException("Malformed centroid row: " + line);
+                }
+                String postcode = fields[0].trim();
+                String locality = normalize(fields[1]);
+                Centroid centroid = new Centroid(Double.parseDouble(fields[3].trim()), Double.parseDouble(fields[4].trim()));
+                byPostcodeAndLocality.put(postcode + "|" + locality, centroid);
+                // The first locality listed for a postcode stands for the whole postcode
+                byPostcode.putIfAbsent(postcode, centroid);
+                byLocalityAndState.put(locality + "|" + normalize(fields[2]), centroid);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read postcode centroids from " + dataset, e);
+        }
+    }
+
+    /**
+     * Best match for an address: the exact locality within the postcode, then the postcode alone, then
+     * the locality within the state (some records carry a phone number where the postcode should be).
+     */
+    public Optional<Centroid> locate(String postcode, String locality, String stateAbbreviation) {
+        String code = postcode == null ? "" : postcode.trim();
+        String place = normalize(locality);
+        Centroid centroid = byPostcodeAndLocality.get(code + "|" + place);
+        if (centroid == null) {
+            centroid = byPostcode.get(code);
+        }
+        if (centroid == null && stateAbbreviation != null) {
+            centroid = byLocalityAndState.get(place + "|" + normalize(stateAbbreviation));
+        }
+        return Optional.ofNullable(centroid);
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
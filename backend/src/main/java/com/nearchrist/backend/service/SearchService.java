@@ -0,0 +1,122 @@
+package com.nearchrist.backend.service;
+
+import com.nearchrist.backend.dto.AdorationDto;
+import com.nearchrist.backend.dto.CrusadeDto;
+import com.nearchrist.backend.dto.KeysetCursor;
+import com.nearchrist.backend.dto.KeysetPage;
+import com.nearchrist.backend.dto.SearchResultDto;
+import com.nearchrist.backend.dto.SuggestionDto;
+import com.nearchrist.backend.repository.AdorationRepository;
+import com.nearchrist.backend.repository.CrusadeRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+@Service
+public class SearchService {
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+    private static final String TYPE_ADORATION = "ADORATION";
+    private static final String TYPE_CRUSADE = "CRUSADE";
+
+    private final DirectoryReadModel readModel;
+    private final AdorationRepository adorationRepository;
+    private final CrusadeRepository crusadeRepository;
+
+    public SearchService(DirectoryReadModel readModel, AdorationRepository adorationRepository, CrusadeRepository crusadeRepository) {
+        this.readModel = readModel;
+        this.adorationRepository = adorationRepository;
+        this.crusadeRepository = crusadeRepository;
+    }
+
+    private record Hit(float score, String type, long id) {}
+
+    /**
+     * Typeahead suggestions, answered from the in-memory read model only.
+     */
+    public List<SuggestionDto> suggest(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("q is required");
+        }
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        return readModel.current().suggest(query, limit);
+    }
+
+    /**
+     * Full-text search over adoration locations and crusade contacts and comments, best matches
+     * first. Both tables are searched with the same cursor and merged, so pages stay in one
+     * ranking across the two.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<SearchResultDto> search(String query, String after, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("q is required");
+        }
+        KeysetPage.checkLimit(limit);
+        int size = limit == null ? DEFAULT_SEARCH_LIMIT : limit;
+        KeysetCursor cursor = KeysetCursor.parse(KeysetCursor.SORT_RANK, after, KeysetCursor.SORT_RANK);
+        // The start cursor sorts above every real score
+        float afterScore = Float.POSITIVE_INFINITY;
+        String afterType = "";
+        if (!cursor.key().isEmpty()) {
+            String[] parts = cursor.key().split(" ", 2);
+            try {
+                afterScore = Float.parseFloat(parts[0]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            afterType = parts.length == 2 ? parts[1] : "";
+        }
+
+        // One more than the page from each table: the merged top size + 1 is then exact
+        List<Hit> hits = new ArrayList<>();
+        adorationRepository.searchText(query, afterScore, afterType, cursor.id(), size + 1)
+                .forEach(hit -> hits.add(new Hit(hit.getScore(), TYPE_ADORATION, hit.getId())));
+        crusadeRepository.searchText(query, afterScore, afterType, cursor.id(), size + 1)
+                .forEach(hit -> hits.add(new Hit(hit.getScore(), TYPE_CRUSADE, hit.getId())));
+        hits.sort(Comparator.comparing(Hit::score).thenComparing(Hit::type).thenComparing(Hit::id).reversed());
+        List<Hit> top = hits.subList(0, Math.min(hits.size(), size + 1));
+
+        DirectorySnapshot snapshot = readModel.current();
+        Map<Long, AdorationDto> adorations = hydrate(top, TYPE_ADORATION, snapshot::adoration,
+                adorationRepository::findDtosByIdIn, AdorationDto::adorationId);
+        Map<Long, CrusadeDto> crusades = hydrate(top, TYPE_CRUSADE, snapshot::crusade,
+                crusadeRepository::findDtosByIdIn, CrusadeDto::crusadeId);
+        List<SearchResultDto> rows = new ArrayList<>(top.size());
+        for (Hit hit : top) {
+            AdorationDto adoration = TYPE_ADORATION.equals(hit.type()) ? adorations.get(hit.id()) : null;
+            CrusadeDto crusade = TYPE_CRUSADE.equals(hit.type()) ? crusades.get(hit.id()) : null;
+            // Deleted since the search ran
+            if (adoration != null || crusade != null) {
+                rows.add(new SearchResultDto(hit.type(), hit.score(), adoration, crusade));
+            }
+        }
+        return KeysetPage.of(rows, size, row -> new KeysetCursor(KeysetCursor.SORT_RANK, row.score() + " " + row.type(),
+                row.adoration() != null ? row.adoration().adorationId() : row.crusade().crusadeId()));
+    }
+
+    // DTOs come from the read model; only rows written after its last rebuild are read from the database
+    private static <T> Map<Long, T> hydrate(List<Hit> hits, String type, Function<Long, Optional<T>> fromSnapshot,
+                                            Function<List<Long>, List<T>> fromDatabase, Function<T, Long> idOf) {
+        Map<Long, T> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Hit hit : hits) {
+            if (type.equals(hit.type())) {
+                fromSnapshot.apply(hit.id()).ifPresentOrElse(dto -> found.put(hit.id(), dto), () -> missing.add(hit.id()));
+            }
+        }
+        if (!missing.isEmpty()) {
+            fromDatabase.apply(missing).forEach(dto -> found.put(idOf.apply(dto), dto));
+        }
+        return found;
+    }
+}
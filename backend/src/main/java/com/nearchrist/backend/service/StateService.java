@@ -5,30 +5,45 @@ import com.nearchrist.backend.dto.StateUpsertDto;
 import com.nearchrist.backend.entity.State;
 import com.nearchrist.backend.mapper.StateMapper;
 import com.nearchrist.backend.repository.StateRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DateTimeException;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class StateService {
+    // Used when a state is created without a zone, as older clients do
+    static final String DEFAULT_TIME_ZONE = "Australia/Sydney";
+
     private final StateRepository repository;
     private final StateMapper mapper;
+    private final DirectoryReadModel readModel;
+    private final ApplicationEventPublisher events;
 
-    public StateService(StateRepository repository, StateMapper mapper) {
+    public StateService(StateRepository repository, StateMapper mapper, DirectoryReadModel readModel, ApplicationEventPublisher events) {
         this.repository = repository;
         this.mapper = mapper;
+        this.readModel = readModel;
+        this.events = events;
+    }
+
+    /**
+     * ETag of every state read served right now; read it before building the response body.
+     */
+    public String currentETag() {
+        return readModel.current().etag(DirectoryAggregate.STATE);
     }
 
-    @Transactional(readOnly = true)
     public List<StateDto> getAllStates() {
-        return mapper.toDtoList(repository.findAll());
+        return readModel.current().states();
     }
 
-    @Transactional(readOnly = true)
     public Optional<StateDto> getStateById(Long id) {
-        return repository.findById(id).map(mapper::toDto);
+        return readModel.current().state(id);
     }
 
     @Transactional
@@ -37,7 +52,10 @@ public class StateService {
             throw new IllegalArgumentException("State name is required");
         }
         State entity = mapper.toEntity(dto);
-        return mapper.toDto(repository.save(entity));
+        entity.setStateTimeZone(validTimeZone(dto.stateTimeZone(), DEFAULT_TIME_ZONE));
+        StateDto saved = mapper.toDto(repository.save(entity));
+        events.publishEvent(new DirectoryChangedEvent(DirectoryAggregate.STATE));
+        return saved;
     }
 
     @Transactional
@@ -49,7 +67,10 @@ public class StateService {
                 .map(entity -> {
                     State updated = mapper.toEntity(dto);
                     updated.setStateId(id);
-                    return mapper.toDto(repository.save(updated));
+                    updated.setStateTimeZone(validTimeZone(dto.stateTimeZone(), entity.getStateTimeZone()));
+                    StateDto saved = mapper.toDto(repository.save(updated));
+                    events.publishEvent(new DirectoryChangedEvent(DirectoryAggregate.STATE));
+                    return saved;
                 });
     }
 
@@ -60,9 +81,21 @@ public class StateService {
         }
         try {
             repository.deleteById(id);
+            events.publishEvent(new DirectoryChangedEvent(DirectoryAggregate.STATE));
             return true;
         } catch (org.springframework.dao.DataIntegrityViolationException e) {
             throw new IllegalStateException("Cannot delete State because it is referenced by other records");
         }
     }
-}
\ No newline at end of file
+
+    private static String validTimeZone(String zone, String fallback) {
+        if (zone == null || zone.isBlank()) {
+            return fallback;
+        }
+        try {
+            return ZoneId.of(zone.trim()).getId();
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Unknown state time zone: " + zone);
+        }
+    }
+}
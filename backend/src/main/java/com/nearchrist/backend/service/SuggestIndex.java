@@ -0,0 +1,224 @@
+package com.nearchrist.backend.service;
+
+import com.nearchrist.backend.dto.DioceseDto;
+import com.nearchrist.backend.dto.ParishDto;
+import com.nearchrist.backend.dto.SuggestionDto;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Word-prefix index over parish names, diocese names, suburbs and postcodes for typeahead. Every
+ * word of every label is folded (accents removed, lower case, punctuation dropped) and kept in one
+ * sorted array, so the entries having a word that starts with a given prefix form a contiguous
+ * range found by binary search.
+ */
+final class SuggestIndex {
+    // Ranked ahead of one another in this order when the match is equally good
+    private enum Type { PARISH, DIOCESE, SUBURB, POSTCODE }
+
+    private record Entry(Type type, Long id, String label, String detail, String folded, String[] words) {
+        SuggestionDto toDto() {
+            return new SuggestionDto(type.name(), id, label, detail);
+        }
+    }
+
+    private record WordRef(String word, int entry) {}
+
+    private final Entry[] entries;
+    // Every (word, entry) pair, sorted by word
+    private final String[] words;
+    private final int[] entryOfWord;
+
+    SuggestIndex(List<DioceseDto> dioceses, List<ParishDto> parishes) {
+        List<Entry> all = new ArrayList<>();
+        for (ParishDto parish : parishes) {
+            add(all, Type.PARISH, parish.parishId(), parish.parishName(),
+                    join(", ", parish.parishSuburb(), parish.stateAbbreviation()));
+        }
+        for (DioceseDto diocese : dioceses) {
+            add(all, Type.DIOCESE, diocese.dioceseId(), diocese.dioceseName(),
+                    String.join("/", diocese.associatedStateAbbreviations()));
+        }
+        // One entry per distinct suburb and per postcode, however many parishes share them
+        Map<String, String[]> suburbs = new LinkedHashMap<>();
+        Map<String, TreeSet<String>> postcodes = new LinkedHashMap<>();
+        for (ParishDto parish : parishes) {
+            String suburb = trimmed(parish.parishSuburb());
+            String postcode = trimmed(parish.parishPostcode());
+            if (suburb != null) {
+                suburbs.putIfAbsent(fold(suburb) + "|" + parish.stateAbbreviation() + "|" + postcode,
+                        new String[]{suburb, join(" ", parish.stateAbbreviation(), postcode)});
+            }
+            if (postcode != null && postcode.chars().allMatch(Character::isDigit)) {
+                TreeSet<String> names = postcodes.computeIfAbsent(postcode, code -> new TreeSet<>());
+                if (suburb != null) {
+                    names.add(suburb);
+                }
+            }
+        }
+        suburbs.values().forEach(suburb -> add(all, Type.SUBURB, null, suburb[0], suburb[1]));
+        postcodes.forEach((postcode, names) -> add(all, Type.POSTCODE, null, postcode, String.join(", ", names)));
+
+        // Entries are stored in tie-break order, so among equally ranked matches the lower index wins
+        all.sort(Comparator.comparing(Entry::type)
+                .thenComparingInt(entry -> entry.label().length())
+                .thenComparing(Entry::folded));
+        this.entries = all.toArray(Entry[]::new);
+        List<WordRef> refs = new ArrayList<>();
+        for (int i = 0; i < entries.length; i++) {
+            for (String word : entries[i].words()) {
+                refs.add(new WordRef(word, i));
+            }
+        }
+        refs.sort(Comparator.comparing(WordRef::word));
+        this.words = refs.stream().map(WordRef::word).toArray(String[]::new);
+        this.entryOfWord = refs.stream().mapToInt(WordRef::entry).toArray();
+    }
+
+    /**
+     * Up to {@code limit} entries in which every word of the query starts some word of the label,
+     * best first: exact labels, then labels starting with the query, then any other match; ties go
+     * to parishes, dioceses, suburbs and postcodes in that order, then to the shorter label.
+     */
+    List<SuggestionDto> suggest(String query, int limit) {
+        String folded = fold(query);
+        if (folded.isEmpty()) {
+            return List.of();
+        }
+        String[] queryWords = folded.split(" ");
+        // Scan only the narrowest word range and check the other query words per entry
+        int from = 0;
+        int to = words.length;
+        for (String queryWord : queryWords) {
+            int start = lowerBound(queryWord);
+            int end = lowerBound(queryWord + Character.MAX_VALUE);
+            if (end - start < to - from) {
+                from = start;
+                to = end;
+            }
+        }
+
+        // Best matches so far as (rank, entry index) packed into longs, kept sorted
+        long[] best = new long[limit];
+        int count = 0;
+        boolean[] seen = new boolean[entries.length];
+        for (int i = from; i < to; i++) {
+            int entry = entryOfWord[i];
+            if (seen[entry]) {
+                continue;
+            }
+            seen[entry] = true;
+            long key = (long) rank(entries[entry], folded) << 32 | entry;
+            if ((count < limit || key < best[count - 1]) && matchesAll(entries[entry], queryWords)) {
+                int slot = count < limit ? count++ : count - 1;
+                while (slot > 0 && best[slot - 1] > key) {
+                    best[slot] = best[slot - 1];
+                    slot--;
+                }
+                best[slot] = key;
+            }
+        }
+        List<SuggestionDto> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(entries[(int) best[i]].toDto());
+        }
+        return result;
+    }
+
+    /**
+     * Case-, accent- and punctuation-insensitive form used for both labels and queries.
+     */
+    static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            int type = Character.getType(c);
+            if (type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK
+                    || type == Character.ENCLOSING_MARK || c == '\'' || c == '\u2019') {
+                // Accents and apostrophes vanish, so "Anne's" folds to "annes"
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                c = Character.toLowerCase(c);
+                // Letters that canonical decomposition leaves whole
+                switch (c) {
+                    case '\u0153' -> folded.append("oe");
+                    case '\u00e6' -> folded.append("ae");
+                    case '\u00df' -> folded.append("ss");
+                    case '\u00f8' -> folded.append('o');
+                    case '\u0142' -> folded.append('l');
+                    case '\u0111' -> folded.append('d');
+                    default -> folded.append(c);
+                }
+            } else if (!folded.isEmpty() && folded.charAt(folded.length() - 1) != ' ') {
+                folded.append(' ');
+            }
+        }
+        int end = folded.length();
+        return end > 0 && folded.charAt(end - 1) == ' ' ? folded.substring(0, end - 1) : folded.toString();
+    }
+
+    private static int rank(Entry entry, String folded) {
+        if (entry.folded().equals(folded)) {
+            return 0;
+        }
+        return entry.folded().startsWith(folded) ? 1 : 2;
+    }
+
+    private static boolean matchesAll(Entry entry, String[] queryWords) {
+        for (String queryWord : queryWords) {
+            boolean found = false;
+            for (String word : entry.words()) {
+                if (word.startsWith(queryWord)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = words.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (words[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void add(List<Entry> entries, Type type, Long id, String label, String detail) {
+        String folded = fold(label);
+        if (!folded.isEmpty()) {
+            String[] words = Arrays.stream(folded.split(" ")).distinct().toArray(String[]::new);
+            entries.add(new Entry(type, id, label.trim(), detail, folded, words));
+        }
+    }
+
+    private static String trimmed(String text) {
+        return text == null || text.isBlank() ? null : text.trim();
+    }
+
+    private static String join(String separator, String... parts) {
+        return String.join(separator, Arrays.stream(parts).filter(part -> part != null && !part.isBlank()).map(String::trim).toList());
+    }
+}
@@ -0,0 +1,9 @@
+package com.nearchrist.backend.service;
+
+/**
+ * Published by {@link UserService} when a user is updated or deleted. Once the transaction
+ * commits, the JWT filter's cached account status for that user is dropped.
+ */
+public record UserChangedEvent(
+        Long userId
+) {}
@@ -1,20 +1,28 @@
 package com.nearchrist.backend.service;
 
+import com.nearchrist.backend.dto.KeysetCursor;
+import com.nearchrist.backend.dto.KeysetPage;
 import com.nearchrist.backend.dto.UserDto;
+import com.nearchrist.backend.dto.UserRoleRow;
 import com.nearchrist.backend.dto.UserUpsertDto;
 import com.nearchrist.backend.entity.Role;
 import com.nearchrist.backend.entity.User;
 import com.nearchrist.backend.mapper.UserMapper;
 import com.nearchrist.backend.repository.RoleRepository;
 import com.nearchrist.backend.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class UserService {
@@ -23,12 +31,15 @@ public class UserService {
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
+    private final ApplicationEventPublisher events;
 
-    public UserService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder, UserMapper userMapper) {
+    public UserService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder, UserMapper userMapper,
+                       ApplicationEventPublisher events) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
         this.userMapper = userMapper;
+        this.events = events;
     }
 
     @Transactional(readOnly = true)
@@ -38,6 +49,43 @@ public class UserService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Passes every user, ordered by id, to {@code sink} as soon as its rows have been read, so
+     * memory use does not depend on the number of users.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllUsers(Consumer<UserDto> sink) {
+        try (Stream<UserRoleRow> rows = userRepository.streamAllWithRoleNames()) {
+            UserRoleRow user = null;
+            Set<String> roles = new HashSet<>();
+            for (Iterator<UserRoleRow> it = rows.iterator(); it.hasNext(); ) {
+                UserRoleRow row = it.next();
+                if (user != null && !user.id().equals(row.id())) {
+                    sink.accept(user.toDto(roles));
+                    roles = new HashSet<>();
+                }
+                user = row;
+                if (row.roleName() != null) {
+                    roles.add(row.roleName());
+                }
+            }
+            if (user != null) {
+                sink.accept(user.toDto(roles));
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<UserDto> getUserPage(String sort, String after, Integer limit) {
+        KeysetPage.checkLimit(limit);
+        KeysetCursor cursor = KeysetCursor.parse(sort, after, KeysetCursor.SORT_ID, KeysetCursor.SORT_NAME);
+        List<User> rows = KeysetCursor.SORT_NAME.equals(sort)
+                ? userRepository.findPageByName(cursor.key(), cursor.id(), KeysetPage.fetchLimit(limit))
+                : userRepository.findPageById(cursor.id(), KeysetPage.fetchLimit(limit));
+        return KeysetPage.of(rows.stream().map(userMapper::toDto).toList(), limit,
+                dto -> new KeysetCursor(sort, KeysetCursor.SORT_NAME.equals(sort) ? dto.userFullName() : "", dto.id()));
+    }
+
     // --- FIX: This method has been restored ---
     @Transactional(readOnly = true)
     public Optional<UserDto> getUserById(Long id) {
@@ -81,6 +129,8 @@ public class UserService {
                     }
 
                     User updatedUser = userRepository.save(existingUser);
+                    // Tokens carry the email and roles they were issued with; a change must reach the JWT filter
+                    events.publishEvent(new UserChangedEvent(id));
                     return userMapper.toDto(updatedUser);
                 });
     }
@@ -89,6 +139,7 @@ public class UserService {
     public boolean deleteUser(Long id) {
         if (userRepository.existsById(id)) {
             userRepository.deleteById(id);
+            events.publishEvent(new UserChangedEvent(id));
             return true;
         }
         return false;
@@ -0,0 +1,9 @@
+-- ==============================================================
+-- V10__Add_Adoration_Crusade_Parish_Indexes.sql
+-- Adds parish_id indexes on adorations and crusades for parish-only
+-- lookups. These also serve the ON DELETE RESTRICT checks performed
+-- when a parish is deleted.
+-- ==============================================================
+
+CREATE INDEX idx_adorations_parish_id ON adorations (parish_id);
+CREATE INDEX idx_crusades_parish_id ON crusades (parish_id);
@@ -0,0 +1,10 @@
+-- ==============================================================
+-- V11__Add_Keyset_Pagination_Indexes.sql
+-- Adds an index matching the ORDER BY of the user name keyset (cursor)
+-- pagination query, so every page is an index range scan starting at
+-- the cursor and page 500 costs the same as page 1.
+-- ==============================================================
+
+-- Sort by name: (name, id) so the row-value comparison
+-- (name, id) > (:after_name, :after_id) seeks straight to the cursor.
+CREATE INDEX idx_users_full_name_id ON users (user_full_name, id);
@@ -0,0 +1,8 @@
+-- ==============================================================
+-- V12__Add_Parish_Diocese_State_Index.sql
+-- Adds an index matching the grouped query that computes each
+-- diocese's associated state abbreviations, so it reads one index
+-- range per diocese instead of scanning every parish row.
+-- ==============================================================
+
+CREATE INDEX idx_parishes_diocese_state ON parishes (diocese_id, state_id);
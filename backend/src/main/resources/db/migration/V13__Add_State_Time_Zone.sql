@@ -0,0 +1,20 @@
+-- ==============================================================
+-- V13__Add_State_Time_Zone.sql
+-- Records each state's IANA time zone, so adoration times (which are
+-- local wall-clock times) can be compared with the current instant.
+-- ==============================================================
+
+ALTER TABLE states ADD COLUMN state_time_zone VARCHAR(64);
+
+UPDATE states
+SET state_time_zone = CASE state_abbreviation
+                          WHEN 'VIC' THEN 'Australia/Melbourne'
+                          WHEN 'QLD' THEN 'Australia/Brisbane'
+                          WHEN 'WA' THEN 'Australia/Perth'
+                          WHEN 'SA' THEN 'Australia/Adelaide'
+                          WHEN 'TAS' THEN 'Australia/Hobart'
+                          WHEN 'NT' THEN 'Australia/Darwin'
+                          ELSE 'Australia/Sydney'
+    END;
+
+ALTER TABLE states ALTER COLUMN state_time_zone SET NOT NULL;
@@ -0,0 +1,9 @@
+-- ==============================================================
+-- V14__Add_Parish_Coordinates.sql
+-- Adds WGS84 coordinates to parishes for nearest-parish search.
+-- Existing rows are left NULL here and filled on startup from the
+-- bundled locality centroid dataset (geo/postcode-centroids.csv).
+-- ==============================================================
+
+ALTER TABLE parishes ADD COLUMN parish_latitude DOUBLE PRECISION;
+ALTER TABLE parishes ADD COLUMN parish_longitude DOUBLE PRECISION;
@@ -0,0 +1,53 @@
+-- ==============================================================
+-- V15__Add_Full_Text_Search.sql
+-- Adds a tsvector search column to crusades (contact name and comments)
+-- and adorations (location and location type), kept current by triggers
+-- and indexed with GIN, so a search only reads the matching rows however
+-- much free text accumulates.
+-- Names and locations carry weight A, descriptive text weight B, so a hit
+-- on a contact or location ranks above a passing mention in a comment.
+-- ==============================================================
+
+-- 1) Crusades
+ALTER TABLE crusades ADD COLUMN search_vector tsvector;
+
+CREATE FUNCTION crusades_search_vector_update() RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector :=
+            setweight(to_tsvector('english', coalesce(NEW.contact_name, '')), 'A') ||
+            setweight(to_tsvector('english', coalesce(NEW.comments, '')), 'B');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_crusades_search_vector
+    BEFORE INSERT OR UPDATE OF contact_name, comments ON crusades
+    FOR EACH ROW EXECUTE FUNCTION crusades_search_vector_update();
+
+UPDATE crusades
+SET search_vector = setweight(to_tsvector('english', coalesce(contact_name, '')), 'A') ||
+                    setweight(to_tsvector('english', coalesce(comments, '')), 'B');
+
+CREATE INDEX idx_crusades_search_vector ON crusades USING GIN (search_vector);
+
+-- 2) Adorations
+ALTER TABLE adorations ADD COLUMN search_vector tsvector;
+
+CREATE FUNCTION adorations_search_vector_update() RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector :=
+            setweight(to_tsvector('english', coalesce(NEW.adoration_location, '')), 'A') ||
+            setweight(to_tsvector('english', coalesce(NEW.adoration_location_type, '')), 'B');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_adorations_search_vector
+    BEFORE INSERT OR UPDATE OF adoration_location, adoration_location_type ON adorations
+    FOR EACH ROW EXECUTE FUNCTION adorations_search_vector_update();
+
+UPDATE adorations
+SET search_vector = setweight(to_tsvector('english', coalesce(adoration_location, '')), 'A') ||
+                    setweight(to_tsvector('english', coalesce(adoration_location_type, '')), 'B');
+
+CREATE INDEX idx_adorations_search_vector ON adorations USING GIN (search_vector);
@@ -0,0 +1,28 @@
+-- ==============================================================
+-- V16__Use_Pooled_Id_Sequences.sql
+-- Hibernate now takes ids from the tables' existing sequences with
+-- its pooled optimizer, instead of reading them back from IDENTITY
+-- inserts one row at a time, so inserts can be sent as JDBC batches.
+-- Each nextval reserves the 50 ids up to and including the value it
+-- returns, so the sequences must advance by the allocation size of
+-- the entities (50). Inserts that rely on the column default still
+-- work: each simply takes one value from its own block.
+-- ==============================================================
+
+ALTER SEQUENCE users_user_id_seq INCREMENT BY 50;
+ALTER SEQUENCE roles_id_seq INCREMENT BY 50;
+ALTER SEQUENCE states_state_id_seq INCREMENT BY 50;
+ALTER SEQUENCE dioceses_diocese_id_seq INCREMENT BY 50;
+ALTER SEQUENCE parishes_parish_id_seq INCREMENT BY 50;
+ALTER SEQUENCE adorations_adoration_id_seq INCREMENT BY 50;
+ALTER SEQUENCE crusades_crusade_id_seq INCREMENT BY 50;
+
+-- The next block must start above every existing id, including rows
+-- inserted with explicit ids that never advanced the sequence
+SELECT setval('users_user_id_seq', GREATEST((SELECT COALESCE(MAX(id), 1) FROM users), (SELECT last_value FROM users_user_id_seq)));
+SELECT setval('roles_id_seq', GREATEST((SELECT COALESCE(MAX(id), 1) FROM roles), (SELECT last_value FROM roles_id_seq)));
+SELECT setval('states_state_id_seq', GREATEST((SELECT COALESCE(MAX(state_id), 1) FROM states), (SELECT last_value FROM states_state_id_seq)));
+SELECT setval('dioceses_diocese_id_seq', GREATEST((SELECT COALESCE(MAX(diocese_id), 1) FROM dioceses), (SELECT last_value FROM dioceses_diocese_id_seq)));
+SELECT setval('parishes_parish_id_seq', GREATEST((SELECT COALESCE(MAX(parish_id), 1) FROM parishes), (SELECT last_value FROM parishes_parish_id_seq)));
+SELECT setval('adorations_adoration_id_seq', GREATEST((SELECT COALESCE(MAX(adoration_id), 1) FROM adorations), (SELECT last_value FROM adorations_adoration_id_seq)));
+SELECT setval('crusades_crusade_id_seq', GREATEST((SELECT COALESCE(MAX(crusade_id), 1) FROM crusades), (SELECT last_value FROM crusades_crusade_id_seq)));
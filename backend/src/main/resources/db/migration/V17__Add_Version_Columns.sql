@@ -0,0 +1,11 @@
+-- ==============================================================
+-- V17__Add_Version_Columns.sql
+-- Adds optimistic-locking versions to parishes, adorations and
+-- crusades. Every update checks and bumps the version in its
+-- WHERE clause, so concurrent edits fail instead of overwriting
+-- each other. Existing rows start at version 0.
+-- ==============================================================
+
+ALTER TABLE parishes ADD COLUMN parish_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE adorations ADD COLUMN adoration_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE crusades ADD COLUMN crusade_version BIGINT NOT NULL DEFAULT 0;
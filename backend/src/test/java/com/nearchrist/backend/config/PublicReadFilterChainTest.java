@@ -0,0 +1,90 @@
+package com.nearchrist.backend.config;
+
+import com.nearchrist.backend.security.JwtAuthenticationFilter;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.context.SecurityContextHolderFilter;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks which security filters each chain runs: public GETs match their own chain, which has no
+ * JWT filter, and a public GET with a stale token still reaches the controller. That is the case
+ * where the main chain does the most work, as a bad signature is never cached.
+ */
+@SpringBootTest
+@Testcontainers
+class PublicReadFilterChainTest {
+    // Well formed, but signed with another key
+    private static final String STALE_TOKEN = "eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJhZG1pbkBleGFtcGxlLmNvbSJ9."
+            + "8D8i2bKm8m7Yq1n1b8C4lq2v3o0bJm5yU6v3P2yJ6qA";
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:14")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private FilterChainProxy filterChainProxy;
+
+    @Test
+    void testPublicReadsSkipJwtProcessing() throws Exception {
+        List<SecurityFilterChain> chains = filterChainProxy.getFilterChains();
+        assertEquals(2, chains.size());
+        SecurityFilterChain publicReads = chains.get(0);
+        SecurityFilterChain main = chains.get(1);
+
+        assertTrue(publicReads.matches(request("GET", "/parishes")));
+        assertTrue(publicReads.matches(request("GET", "/adorations/42")));
+        assertFalse(publicReads.matches(request("PUT", "/parishes/1")));
+        assertFalse(publicReads.matches(request("GET", "/users")));
+        assertFalse(contains(publicReads.getFilters(), JwtAuthenticationFilter.class));
+        assertFalse(contains(publicReads.getFilters(), SecurityContextHolderFilter.class));
+        assertTrue(contains(main.getFilters(), JwtAuthenticationFilter.class));
+
+        assertTrue(publicReads.getFilters().size() < main.getFilters().size());
+
+        // Public reads still reach the controller, whatever token they carry
+        MockHttpServletRequest request = request("GET", "/parishes");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + STALE_TOKEN);
+        MockFilterChain chain = new MockFilterChain();
+        filterChainProxy.doFilter(request, new MockHttpServletResponse(), chain);
+        assertNotNull(chain.getRequest());
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        return request;
+    }
+
+    private static boolean contains(List<Filter> filters, Class<? extends Filter> type) {
+        return filters.stream().anyMatch(type::isInstance);
+    }
+}
@@ -50,6 +50,28 @@ class AdorationControllerTest {
                 .andExpect(jsonPath("$.data[1].adorationId").value(6));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testGetAdorationsFilteredByParish() throws Exception {
+        // Parish 16 is used by no other test, so its adorations are exactly these two
+        for (String type : new String[]{"Perpetual", "Scheduled"}) {
+            String adorationJson = "{\"stateId\":1, \"dioceseId\":1, \"parishId\":16, \"adorationType\":\"" + type + "\"}";
+            mockMvc.perform(post("/adorations").contentType(MediaType.APPLICATION_JSON).content(adorationJson))
+                    .andExpect(status().isCreated());
+        }
+
+        mockMvc.perform(get("/adorations").param("state_id", "1").param("diocese_id", "1").param("parish_id", "16")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[0].parishId").value(16))
+                .andExpect(jsonPath("$.data[1].adorationType").value("Scheduled"));
+
+        mockMvc.perform(get("/adorations").param("parish_id", "17").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(0));
+    }
+
     @Test
     void testGetAdorationById() throws Exception {
         mockMvc.perform(get("/adorations/4").contentType(MediaType.APPLICATION_JSON))
@@ -101,4 +123,79 @@ class AdorationControllerTest {
                 .andExpect(status().isOk())  // Succeeds as no references, but update if needed
                 .andExpect(jsonPath("$.success").value(true));
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testBatchWithUnknownParishAppliesNothing() throws Exception {
+        // Item 0 is valid (parish 6 is in diocese 1); only item 1 and the delete are rejected
+        String batchJson = "{\"create\":[{\"stateId\":1,\"dioceseId\":1,\"parishId\":6,\"adorationType\":\"Batch Type\"},"
+                + "{\"stateId\":1,\"dioceseId\":1,\"parishId\":999999,\"adorationType\":\"Batch Type\"}],"
+                + "\"delete\":[999999]}";
+        mockMvc.perform(post("/adorations/batch").contentType(MediaType.APPLICATION_JSON).content(batchJson))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.data.applied").value(false))
+                .andExpect(jsonPath("$.data.items.length()").value(2))
+                .andExpect(jsonPath("$.data.items[0].index").value(1))
+                .andExpect(jsonPath("$.data.items[1].status").value(404));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testImportAdorationsRejectsParishOfAnotherDiocese() throws Exception {
+        // Parish 6 belongs to diocese 1, not 4
+        String csv = "state_id,diocese_id,parish_id,adoration_type\r\n"
+                + "1,4,6,Perpetual\r\n";
+        mockMvc.perform(post("/import/adorations").contentType("text/csv").content(csv))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.data.imported").value(0))
+                .andExpect(jsonPath("$.data.errors[0].message").value("Parish with ID 6 does not belong to Diocese with ID 4"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testGetCoverageAndUpcomingForParish() throws Exception {
+        // Parish 13 has no other adorations, so its week is exactly this Monday hour
+        String adorationJson = "{\"stateId\":1, \"dioceseId\":1, \"parishId\":13, \"adorationType\":\"Scheduled\", "
+                + "\"adorationDay\":\"Monday\", \"adorationStart\":\"09:00\", \"adorationEnd\":\"10:00\"}";
+        mockMvc.perform(post("/adorations").contentType(MediaType.APPLICATION_JSON).content(adorationJson))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/adorations/coverage").param("parish_id", "13"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.coveredMinutes").value(60))
+                .andExpect(jsonPath("$.data.heatmap[0][9]").value(60))
+                .andExpect(jsonPath("$.data.heatmap[0][10]").value(0));
+
+        mockMvc.perform(get("/adorations/upcoming").param("parish_id", "13").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[0].adoration.parishId").value(13));
+    }
+
+    @Test
+    void testGetUpcomingRejectsInvalidLimit() throws Exception {
+        mockMvc.perform(get("/adorations/upcoming").param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testGetHappeningNowIncludesPerpetualAdoration() throws Exception {
+        String adorationJson = "{\"stateId\":1, \"dioceseId\":1, \"parishId\":14, \"adorationType\":\"Perpetual\"}";
+        mockMvc.perform(post("/adorations").contentType(MediaType.APPLICATION_JSON).content(adorationJson))
+                .andExpect(status().isCreated());
+
+        // Perpetual adoration is open at any time of the week
+        mockMvc.perform(get("/adorations/now").param("parish_id", "14"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.happeningNow.length()").value(1))
+                .andExpect(jsonPath("$.data.happeningNow[0].parishId").value(14))
+                .andExpect(jsonPath("$.data.validUntil").exists());
+
+        mockMvc.perform(get("/adorations/now").param("within", "-1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+}
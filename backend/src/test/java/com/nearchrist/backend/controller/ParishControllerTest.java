@@ -1,5 +1,6 @@
 package com.nearchrist.backend.controller;
 
+import com.jayway.jsonpath.JsonPath;
 import com.nearchrist.backend.entity.Parish;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,12 +12,19 @@ import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -49,6 +57,48 @@ class ParishControllerTest {
                 .andExpect(jsonPath("$.data.length()").value(3));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testGetParishesKeysetPagination() throws Exception {
+        // Digits sort ahead of every letter, so these three are the first parishes by name
+        for (String name : new String[]{"000 Keyset C", "000 Keyset A", "000 Keyset B"}) {
+            String parishJson = "{\"parishName\":\"" + name + "\", \"dioceseId\":1, \"stateId\":1}";
+            mockMvc.perform(post("/parishes").contentType(MediaType.APPLICATION_JSON).content(parishJson))
+                    .andExpect(status().isCreated());
+        }
+
+        MvcResult firstPage = mockMvc.perform(get("/parishes").param("sort", "name").param("limit", "2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[0].parishName").value("000 Keyset A"))
+                .andExpect(jsonPath("$.data[1].parishName").value("000 Keyset B"))
+                .andExpect(jsonPath("$.nextCursor").exists())
+                .andReturn();
+        String cursor = JsonPath.read(firstPage.getResponse().getContentAsString(), "$.nextCursor");
+
+        // The V2 parishes follow, so the second page is full and has a cursor of its own
+        mockMvc.perform(get("/parishes").param("sort", "name").param("limit", "2").param("after", cursor)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[0].parishName").value("000 Keyset C"))
+                .andExpect(jsonPath("$.data[1].parishName").value(not(startsWith("000 Keyset"))))
+                .andExpect(jsonPath("$.nextCursor").exists());
+    }
+
+    @Test
+    void testGetParishesRejectsCursorOfAnotherSort() throws Exception {
+        MvcResult firstPage = mockMvc.perform(get("/parishes").param("limit", "1").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+        String cursor = JsonPath.read(firstPage.getResponse().getContentAsString(), "$.nextCursor");
+
+        mockMvc.perform(get("/parishes").param("sort", "name").param("after", cursor).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
     @Test
     void testGetParishById() throws Exception {
         mockMvc.perform(get("/parishes/1").contentType(MediaType.APPLICATION_JSON))
@@ -57,6 +107,27 @@ class ParishControllerTest {
                 .andExpect(jsonPath("$.data.parishName").value("All Hallows"));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testGetNearestParishes() throws Exception {
+        // Off the coast, about 150 km from any parish placed at a Sydney locality centroid
+        String parishJson = "{\"parishName\":\"Nearest Test Parish\", \"dioceseId\":1, \"stateId\":1, "
+                + "\"parishLatitude\":-34.5, \"parishLongitude\":152.5}";
+        mockMvc.perform(post("/parishes").contentType(MediaType.APPLICATION_JSON).content(parishJson))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/parishes/nearest").param("lat", "-34.5").param("lon", "152.5").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(1))
+                .andExpect(jsonPath("$.data[0].parish.parishName").value("Nearest Test Parish"))
+                .andExpect(jsonPath("$.data[0].distanceKm").value(0.0))
+                .andExpect(jsonPath("$.data[0].adorations").isEmpty());
+
+        mockMvc.perform(get("/parishes/nearest").param("lat", "91").param("lon", "151"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Latitude must be between -90 and 90 and longitude between -180 and 180"));
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void testCreateParish() throws Exception {
@@ -77,6 +148,44 @@ class ParishControllerTest {
                 .andExpect(jsonPath("$.data.parishName").value("Updated All Hallows"));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testUpdateParishWithStaleIfMatchFails() throws Exception {
+        String updatedParishJson = "{\"dioceseId\":1, \"parishName\":\"Stale All Hallows\", \"stateId\":1}";
+        mockMvc.perform(put("/parishes/15").header("If-Match", "\"999\"")
+                        .contentType(MediaType.APPLICATION_JSON).content(updatedParishJson))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testUpdateParishChecksVersion() throws Exception {
+        MvcResult read = mockMvc.perform(get("/parishes/15"))
+                .andExpect(status().isOk())
+                .andReturn();
+        long version = ((Number) JsonPath.read(read.getResponse().getContentAsString(), "$.data.parishVersion")).longValue();
+
+        String parishJson = "{\"dioceseId\":1, \"parishName\":\"Holy Spirit Carnes Hill\", \"stateId\":1}";
+        mockMvc.perform(put("/parishes/15").header("If-Match", "\"" + version + "\"")
+                        .contentType(MediaType.APPLICATION_JSON).content(parishJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.parishVersion").value(version + 1));
+
+        // The version read before that update is now stale when sent in the body
+        String staleJson = "{\"dioceseId\":1, \"parishName\":\"Stale Carnes Hill\", \"stateId\":1, \"parishVersion\":" + version + "}";
+        mockMvc.perform(put("/parishes/15").contentType(MediaType.APPLICATION_JSON).content(staleJson))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.success").value(false));
+
+        // If-Match: * applies whatever the current version, and takes precedence over the body
+        mockMvc.perform(put("/parishes/15").header("If-Match", "*")
+                        .contentType(MediaType.APPLICATION_JSON).content(staleJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.parishName").value("Stale Carnes Hill"))
+                .andExpect(jsonPath("$.data.parishVersion").value(version + 2));
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void testDeleteParishSuccess() throws Exception {
@@ -94,10 +203,66 @@ class ParishControllerTest {
     @Test
     @WithMockUser(roles = "ADMIN")
     void testDeleteParishWithReferenceFails() throws Exception {
-        // ParishID 6 is referenced by adorations in test-data.sql
+        // Give parish 6 an adoration, so the delete must be refused rather than cascade to it
+        String adorationJson = "{\"stateId\":1, \"dioceseId\":1, \"parishId\":6, \"adorationType\":\"Perpetual\"}";
+        mockMvc.perform(post("/adorations").contentType(MediaType.APPLICATION_JSON).content(adorationJson))
+                .andExpect(status().isCreated());
+
         mockMvc.perform(delete("/parishes/6").contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.success").value(false))
                 .andExpect(jsonPath("$.message").value("Cannot delete Parish because it is referenced by other records"));
+        mockMvc.perform(get("/adorations").param("parish_id", "6"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data").isNotEmpty());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testBatchDeleteOfReferencedParishConflicts() throws Exception {
+        String adorationJson = "{\"stateId\":1, \"dioceseId\":1, \"parishId\":9, \"adorationType\":\"Perpetual\"}";
+        mockMvc.perform(post("/adorations").contentType(MediaType.APPLICATION_JSON).content(adorationJson))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/parishes/batch").contentType(MediaType.APPLICATION_JSON).content("{\"delete\":[10,9]}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.data.applied").value(false))
+                .andExpect(jsonPath("$.data.items.length()").value(1))
+                .andExpect(jsonPath("$.data.items[0].index").value(1))
+                .andExpect(jsonPath("$.data.items[0].status").value(409))
+                .andExpect(jsonPath("$.data.items[0].message").value("Parish 9 is referenced by other records"));
+        mockMvc.perform(get("/parishes/10"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testImportParishesRejectsInvalidRows() throws Exception {
+        String csv = "parish_name,parish_suburb,diocese_id,state_id\r\n"
+                + "\"St Mary, Star of the Sea\",Milsons Point,999,1\r\n"
+                + ",Milsons Point,1,1\r\n";
+        mockMvc.perform(post("/import/parishes").contentType("text/csv").content(csv))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.data.received").value(2))
+                .andExpect(jsonPath("$.data.imported").value(0))
+                .andExpect(jsonPath("$.data.rejected").value(2))
+                .andExpect(jsonPath("$.data.errors[0].row").value(1))
+                .andExpect(jsonPath("$.data.errors[0].message").value("Diocese with ID 999 does not exist"))
+                .andExpect(jsonPath("$.data.errors[1].message").value("parish_name is required"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testExportParishesAsCsv() throws Exception {
+        // Streamed from a database cursor, so the body is written on an async dispatch
+        MvcResult streamed = mockMvc.perform(get("/export/parishes").param("state_id", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(streamed))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", containsString("parishes-state-1.csv")))
+                .andExpect(content().string(startsWith("parishId,parishName,parishStNumber,")));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,76 @@
+package com.nearchrist.backend.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@Testcontainers
+@AutoConfigureMockMvc
+@Sql(scripts = {"/test-schema.sql", "/test-data.sql"})
+class SearchControllerTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:14")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testSuggestMatchesWordPrefix() throws Exception {
+        // "marou" starts a word of parish 8, Holy Family Maroubra
+        mockMvc.perform(get("/search/suggest").param("q", "marou"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data[?(@.type == 'PARISH')].label", hasItem("Holy Family Maroubra")));
+
+        mockMvc.perform(get("/search/suggest").param("q", " "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("q is required"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testSearchFindsAdorationByLocation() throws Exception {
+        String adorationJson = "{\"stateId\":1, \"dioceseId\":1, \"parishId\":6, \"adorationType\":\"Perpetual\", "
+                + "\"adorationLocation\":\"Marmalade Chapel\"}";
+        mockMvc.perform(post("/adorations").contentType(MediaType.APPLICATION_JSON).content(adorationJson))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/search").param("q", "marmalade"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(1))
+                .andExpect(jsonPath("$.data[0].type").value("ADORATION"))
+                .andExpect(jsonPath("$.data[0].adoration.adorationLocation").value("Marmalade Chapel"))
+                .andExpect(jsonPath("$.data[0].crusade").doesNotExist());
+
+        mockMvc.perform(get("/search").param("q", "marmalade").param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+    }
+}
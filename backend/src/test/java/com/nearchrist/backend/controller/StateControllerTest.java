@@ -11,12 +11,17 @@ import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -49,6 +54,43 @@ class StateControllerTest {
                 .andExpect(jsonPath("$.data.length()").value(2));
     }
 
+    @Test
+    void testGetAllStatesNotModified() throws Exception {
+        MvcResult first = mockMvc.perform(get("/states").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/states").header("If-None-Match", etag).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        // The tag matches the aggregate, but a missing state was never a 200 to revalidate
+        mockMvc.perform(get("/states/999").header("If-None-Match", etag).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetStateCalendar() throws Exception {
+        // The feed is streamed, so the body is written on an async dispatch
+        MvcResult streamed = mockMvc.perform(get("/states/1/calendar.ics"))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(streamed))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/calendar"))
+                .andExpect(content().string(startsWith("BEGIN:VCALENDAR\r\n")));
+
+        String etag = streamed.getResponse().getHeader("ETag");
+        mockMvc.perform(get("/states/1/calendar.ics").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     void testGetStateById() throws Exception {
         mockMvc.perform(get("/states/1").contentType(MediaType.APPLICATION_JSON))
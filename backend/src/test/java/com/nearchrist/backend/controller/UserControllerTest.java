@@ -1,6 +1,8 @@
 package com.nearchrist.backend.controller;
 
 import com.nearchrist.backend.entity.User;
+import com.nearchrist.backend.repository.UserRepository;
+import com.nearchrist.backend.security.JwtUtil;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -11,12 +13,16 @@ import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -41,10 +47,23 @@ class UserControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void testGetAllUsers() throws Exception {
-        mockMvc.perform(get("/users").contentType(MediaType.APPLICATION_JSON))
+        // The full list is streamed, so the body is written on an async dispatch
+        MvcResult streamed = mockMvc.perform(get("/users").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(streamed))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.data.length()").value(0));  // No users in test-data.sql, adjust if added
@@ -111,4 +130,21 @@ class UserControllerTest {
                 .andExpect(status().isNotFound())  // If no user, or succeed if exists without references
                 .andExpect(jsonPath("$.success").value(false));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRoleChangeRevokesIssuedToken() throws Exception {
+        // Issued as a login would, for the supervisor account of V2__insert_data.sql
+        String token = transactionTemplate.execute(tx -> jwtUtil.generateToken(userRepository.findById(2L).orElseThrow()));
+        mockMvc.perform(get("/users/2").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        // The account check is cached, so only the change event makes the next request see the new role
+        String updatedUserJson = "{\"userFullName\":\"supervisor\",\"userEmail\":\"supervisor@nearchrist.com\",\"roles\":[\"STANDARD\"]}";
+        mockMvc.perform(put("/users/2").with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON).content(updatedUserJson))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/users/2").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+}
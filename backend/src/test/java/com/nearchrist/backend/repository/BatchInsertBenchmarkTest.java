@@ -0,0 +1,83 @@
+package com.nearchrist.backend.repository;
+
+import com.nearchrist.backend.entity.State;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares flushing many new rows at once with flushing them one at a time. With sequence ids
+ * and JDBC batching, the rows of one flush go out as a statement per batch of 50 instead of one
+ * statement (and round trip) per row.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Testcontainers
+class BatchInsertBenchmarkTest {
+    private static final int ROWS = 500;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:14")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private StateRepository repository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @Transactional
+    void testMultiRowInsertIsBatched() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        for (State state : states("Row")) {
+            repository.saveAndFlush(state);
+        }
+        long rowByRowStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        repository.saveAllAndFlush(states("Batch"));
+        long batchedStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(ROWS, statistics.getEntityInsertCount());
+        assertTrue(rowByRowStatements >= ROWS, "each row flushed alone needs its own INSERT");
+        // One INSERT per batch of 50 plus one sequence call per block of 50 ids
+        assertTrue(batchedStatements <= 2 * (ROWS / 50 + 1),
+                "expected batched inserts but saw " + batchedStatements + " statements");
+    }
+
+    private static List<State> states(String prefix) {
+        return IntStream.range(0, ROWS).mapToObj(i -> {
+            State state = new State();
+            state.setStateName(prefix + " state " + i);
+            state.setStateAbbreviation("B" + i);
+            state.setStateTimeZone("Australia/Sydney");
+            return state;
+        }).toList();
+    }
+}
@@ -0,0 +1,80 @@
+package com.nearchrist.backend.repository;
+
+import com.nearchrist.backend.dto.ParishDto;
+import com.nearchrist.backend.mapper.ParishMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares reading every parish as entities mapped to DTOs with reading them through the DTO
+ * projection. The entities need their dioceses and states loaded in further statements and are
+ * all tracked by the persistence context; the projection is one joined query that hydrates none.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Testcontainers
+class DtoProjectionStatementCountTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:14")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private ParishRepository repository;
+
+    @Autowired
+    private ParishMapper mapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @Transactional(readOnly = true)
+    void testProjectionReadsParishesWithoutEntities() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        List<ParishDto> mapped = mapper.toDtoList(repository.findAll());
+        long mappedStatements = statistics.getPrepareStatementCount();
+        long mappedEntities = statistics.getEntityLoadCount();
+
+        statistics.clear();
+        List<ParishDto> projected;
+        try (Stream<ParishDto> rows = repository.streamAllDtos()) {
+            projected = rows.toList();
+        }
+
+        assertFalse(mapped.isEmpty());
+        assertEquals(Set.copyOf(mapped), Set.copyOf(projected));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertTrue(mappedStatements > 1, "the mapper needs each parish's diocese and state loaded");
+        assertTrue(mappedEntities > mapped.size(), "every parish, diocese and state is hydrated");
+    }
+}